@@ -0,0 +1,10 @@
+package org.vaadin.kitchensink;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.vaadin.kitchensink.service.ActuatorProperties;
+
+@Configuration
+@EnableConfigurationProperties(ActuatorProperties.class)
+public class ActuatorConfiguration {
+}
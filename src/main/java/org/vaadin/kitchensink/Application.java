@@ -1,6 +1,7 @@
 package org.vaadin.kitchensink;
 
 import com.vaadin.flow.component.page.AppShellConfigurator;
+import com.vaadin.flow.component.page.Push;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.theme.Theme;
 import org.springframework.boot.SpringApplication;
@@ -14,6 +15,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  *
  */
 @SpringBootApplication
+@Push
 @PageTitle("Kitchen Sink")
 @Theme(value = "kitchen-sink")
 public class Application implements AppShellConfigurator {
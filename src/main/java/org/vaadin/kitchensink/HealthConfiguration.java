@@ -0,0 +1,57 @@
+package org.vaadin.kitchensink;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.health.HealthEndpointProperties;
+import org.springframework.boot.actuate.health.DefaultHealthContributorRegistry;
+import org.springframework.boot.actuate.health.HealthContributor;
+import org.springframework.boot.actuate.health.HealthContributorNameFactory;
+import org.springframework.boot.actuate.health.HealthContributorRegistry;
+import org.springframework.boot.actuate.health.HealthEndpointGroups;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.vaadin.kitchensink.service.DeadlineHealthEndpointWebExtension;
+import org.vaadin.kitchensink.service.DeadlineHealthIndicator;
+import org.vaadin.kitchensink.service.HealthEvaluationEngine;
+import org.vaadin.kitchensink.service.HealthHistory;
+import org.vaadin.kitchensink.service.HealthHistoryEndpoint;
+import org.vaadin.kitchensink.service.HealthProperties;
+
+@Configuration
+@EnableConfigurationProperties(HealthProperties.class)
+public class HealthConfiguration {
+
+    /**
+     * Replaces the auto-configured registry with one whose indicators run through
+     * the {@link HealthEvaluationEngine}, so that the health endpoint, including
+     * the readiness and liveness groups, applies the per-indicator timeout.
+     * Contributors are named the way the actuator names them, which is also how
+     * the engine knows them.
+     */
+    @Bean
+    HealthContributorRegistry healthContributorRegistry(Map<String, HealthContributor> healthContributors,
+            ObjectProvider<HealthEvaluationEngine> engine) {
+        Map<String, HealthContributor> decorated = new LinkedHashMap<>();
+        healthContributors.forEach((beanName, contributor) -> {
+            String name = HealthContributorNameFactory.INSTANCE.apply(beanName);
+            decorated.put(name, DeadlineHealthIndicator.decorate(name, contributor, engine));
+        });
+        return new DefaultHealthContributorRegistry(decorated);
+    }
+
+    @Bean
+    DeadlineHealthEndpointWebExtension healthEndpointWebExtension(HealthContributorRegistry healthContributorRegistry,
+            HealthEndpointGroups groups, HealthEndpointProperties properties,
+            ObjectProvider<HealthEvaluationEngine> engine) {
+        return new DeadlineHealthEndpointWebExtension(healthContributorRegistry, groups,
+                properties.getLogging().getSlowIndicatorThreshold(), engine);
+    }
+
+    @Bean
+    HealthHistoryEndpoint healthHistoryEndpoint(HealthHistory history) {
+        return new HealthHistoryEndpoint(history);
+    }
+}
@@ -1,17 +1,117 @@
 package org.vaadin.kitchensink;
 
-import org.springframework.boot.actuate.web.exchanges.HttpExchangeRepository;
-import org.springframework.boot.actuate.web.exchanges.InMemoryHttpExchangeRepository;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.web.exchanges.HttpExchangesProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.vaadin.kitchensink.exchanges.ExchangeBroadcaster;
+import org.vaadin.kitchensink.exchanges.HttpExchangeExporter;
+import org.vaadin.kitchensink.exchanges.HttpExchangeProperties;
+import org.vaadin.kitchensink.exchanges.HttpExchangeSampler;
+import org.vaadin.kitchensink.exchanges.HttpExchangeStore;
+import org.vaadin.kitchensink.exchanges.JournalHttpExchangeRepository;
+import org.vaadin.kitchensink.exchanges.RequestClassifier;
+import org.vaadin.kitchensink.exchanges.RingBufferHttpExchangeRepository;
+import org.vaadin.kitchensink.exchanges.RouteLatencyAggregator;
+import org.vaadin.kitchensink.exchanges.SamplingHttpExchangesFilter;
+
+import com.vaadin.flow.router.RouteBaseData;
+import com.vaadin.flow.router.RouteConfiguration;
+import com.vaadin.flow.server.RouteRegistry;
+import com.vaadin.flow.server.VaadinServiceInitListener;
+import com.vaadin.flow.spring.security.RequestUtil;
 
 @Configuration
+@EnableConfigurationProperties({ HttpExchangeProperties.class, HttpExchangesProperties.class })
 public class TraceConfiguration {
 
     @Bean
-    public HttpExchangeRepository httpTraceRepository() {
-        InMemoryHttpExchangeRepository repo = new InMemoryHttpExchangeRepository();
-        repo.setCapacity(50);       // keep only the last 50 traces, for example
-        return repo;
+    public HttpExchangeStore httpTraceRepository(HttpExchangeProperties properties) throws IOException {
+        if (properties.getStore() == HttpExchangeProperties.Store.JOURNAL) {
+            HttpExchangeProperties.Journal journal = properties.getJournal();
+            return new JournalHttpExchangeRepository(Path.of(journal.getDirectory()),
+                    Math.toIntExact(journal.getSegmentSize().toBytes()), journal.getMaxSize().toBytes(),
+                    journal.getMaxAge(), properties.getCapacity());
+        }
+        return new RingBufferHttpExchangeRepository(properties.getCapacity());
+    }
+
+    @Bean
+    public ExchangeBroadcaster exchangeBroadcaster(HttpExchangeStore httpTraceRepository,
+            HttpExchangeProperties properties) {
+        HttpExchangeProperties.Push push = properties.getPush();
+        ExchangeBroadcaster broadcaster = new ExchangeBroadcaster(push.getFramesPerSecond(), push.getMaxBatchSize());
+        httpTraceRepository.addListener(broadcaster::publish);
+        return broadcaster;
+    }
+
+    @Bean
+    public HttpExchangeExporter httpExchangeExporter(HttpExchangeStore httpTraceRepository,
+            HttpExchangeProperties properties) {
+        return new HttpExchangeExporter(httpTraceRepository, properties.getExport().getMaskedHeaders());
+    }
+
+    @Bean
+    public HttpExchangeSampler httpExchangeSampler(HttpExchangeProperties properties) {
+        HttpExchangeProperties.Sampling sampling = properties.getSampling();
+        return new HttpExchangeSampler(properties.getCapture().getClasses(), sampling.getRate(), sampling.getMaxPerSecond(), sampling.getSlowThreshold(),
+                sampling.isKeepErrors());
+    }
+
+    @Bean
+    public RouteLatencyAggregator routeLatencyAggregator(HttpExchangeProperties properties) {
+        HttpExchangeProperties.Latency latency = properties.getLatency();
+        return new RouteLatencyAggregator(latency.getSliceDuration(), latency.getSlices());
+    }
+
+    /**
+     * Keeps the route templates of the latency aggregator in sync with the routes
+     * registered in Vaadin, including routes added at runtime.
+     */
+    @Bean
+    public VaadinServiceInitListener routeLatencyTemplates(RouteLatencyAggregator routeLatencyAggregator) {
+        return event -> {
+            RouteRegistry registry = event.getSource().getRouter().getRegistry();
+            Runnable update = () -> routeLatencyAggregator.setRouteTemplates(
+                    RouteConfiguration.forRegistry(registry).getAvailableRoutes().stream()
+                            .flatMap(route -> Stream.concat(Stream.of(route.getTemplate()),
+                                    route.getRouteAliases().stream().map(RouteBaseData::getTemplate)))
+                            .toList());
+            update.run();
+            registry.addRoutesChangeListener(change -> update.run());
+        };
+    }
+
+    /**
+     * Classifies requests the same way the security configuration recognizes
+     * framework-internal requests. Without Vaadin's request utility no request is
+     * considered internal.
+     */
+    @Bean
+    public RequestClassifier requestClassifier(HttpExchangeProperties properties,
+            ObjectProvider<RequestUtil> requestUtil) {
+        RequestUtil util = requestUtil.getIfAvailable();
+        return new RequestClassifier(util != null ? util::isFrameworkInternalRequest : request -> false,
+                properties.getCapture().getStaticPaths());
+    }
+
+    /**
+     * Replaces the auto-configured exchanges filter so that requests are sampled
+     * before an exchange is built for them.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "management.httpexchanges.recording", name = "enabled", matchIfMissing = true)
+    public SamplingHttpExchangesFilter httpExchangesFilter(HttpExchangeStore httpTraceRepository,
+            HttpExchangesProperties httpExchangesProperties, HttpExchangeSampler httpExchangeSampler,
+            RouteLatencyAggregator routeLatencyAggregator, RequestClassifier requestClassifier) {
+        return new SamplingHttpExchangesFilter(httpTraceRepository,
+                httpExchangesProperties.getRecording().getInclude(), httpExchangeSampler, routeLatencyAggregator,
+                requestClassifier);
     }
 }
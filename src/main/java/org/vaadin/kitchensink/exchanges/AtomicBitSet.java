@@ -0,0 +1,40 @@
+package org.vaadin.kitchensink.exchanges;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Fixed-size bit set whose bits can be set and cleared concurrently without locks.
+ * Each update is a single atomic bitwise operation on the containing word.
+ */
+final class AtomicBitSet {
+
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] words;
+
+    AtomicBitSet(int size) {
+        words = new long[wordCount(size)];
+    }
+
+    static int wordCount(int size) {
+        return (size + Long.SIZE - 1) >>> 6;
+    }
+
+    void set(int index) {
+        WORDS.getAndBitwiseOr(words, index >>> 6, 1L << index);
+    }
+
+    void clear(int index) {
+        WORDS.getAndBitwiseAnd(words, index >>> 6, ~(1L << index));
+    }
+
+    /**
+     * ORs the current contents of this set into the given words.
+     */
+    void orInto(long[] target) {
+        for (int i = 0; i < words.length; i++) {
+            target[i] |= (long) WORDS.getAcquire(words, i);
+        }
+    }
+}
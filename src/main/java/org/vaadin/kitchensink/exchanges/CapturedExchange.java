@@ -0,0 +1,127 @@
+package org.vaadin.kitchensink.exchanges;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+import org.springframework.boot.actuate.web.exchanges.HttpExchange;
+
+/**
+ * An exchange held by an {@link HttpExchangeStore}, exposing the fields needed
+ * to list, filter and sort history. The full {@link HttpExchange} with headers is
+ * only materialized when {@link #getExchange()} is called.
+ * <p>
+ * Identifiers are assigned by the store, increase with the order in which
+ * exchanges were added and are used for equality.
+ * </p>
+ */
+public final class CapturedExchange {
+
+    /**
+     * Status reported when no response was recorded.
+     */
+    public static final int NO_STATUS = -1;
+
+    private final long id;
+    private final Instant timestamp;
+    private final String method;
+    private final String uri;
+    private final String path;
+    private final int status;
+    private final Duration timeTaken;
+    private final Function<CapturedExchange, HttpExchange> loader;
+    private final HttpExchange exchange;
+
+    CapturedExchange(long id, HttpExchange exchange) {
+        this(id, exchange.getTimestamp(), exchange.getRequest().getMethod(),
+                exchange.getRequest().getUri().toString(),
+                exchange.getResponse() != null ? exchange.getResponse().getStatus() : NO_STATUS,
+                exchange.getTimeTaken(), null, exchange);
+    }
+
+    CapturedExchange(long id, Instant timestamp, String method, String uri, int status, Duration timeTaken,
+            Function<CapturedExchange, HttpExchange> loader) {
+        this(id, timestamp, method, uri, status, timeTaken, loader, null);
+    }
+
+    private CapturedExchange(long id, Instant timestamp, String method, String uri, int status,
+            Duration timeTaken, Function<CapturedExchange, HttpExchange> loader, HttpExchange exchange) {
+        this.id = id;
+        this.timestamp = timestamp;
+        this.method = method;
+        this.uri = uri;
+        this.path = extractPath(uri);
+        this.status = status;
+        this.timeTaken = timeTaken;
+        this.loader = loader;
+        this.exchange = exchange;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    /**
+     * Returns the raw path of the request URI, without query or fragment.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the response status, or {@link #NO_STATUS} if there was no response.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    public Duration getTimeTaken() {
+        return timeTaken;
+    }
+
+    /**
+     * Returns the full exchange. If the store keeps it in an encoded form it is
+     * decoded on every call and not retained, so call this only when the details
+     * are actually needed.
+     */
+    public HttpExchange getExchange() {
+        return exchange != null ? exchange : loader.apply(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CapturedExchange that)) return false;
+        return id == that.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(id);
+    }
+
+    private static String extractPath(String uri) {
+        int start = uri.indexOf("://");
+        start = start >= 0 ? uri.indexOf('/', start + 3) : uri.indexOf('/');
+        if (start < 0) {
+            return "/";
+        }
+        int end = start;
+        while (end < uri.length() && uri.charAt(end) != '?' && uri.charAt(end) != '#') {
+            end++;
+        }
+        return uri.substring(start, end);
+    }
+}
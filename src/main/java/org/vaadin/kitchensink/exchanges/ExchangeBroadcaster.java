@@ -0,0 +1,163 @@
+package org.vaadin.kitchensink.exchanges;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publishes newly stored exchanges to subscribers, typically UIs updated through
+ * server push.
+ * <p>
+ * Exchanges are not handed over one by one. Each subscription buffers at most
+ * {@code maxBatchSize} exchanges, dropping the oldest when it is full, and a
+ * single timer delivers the buffered exchanges as one batch per frame. A batch is
+ * only delivered once the previous one has completed, so a slow client never
+ * accumulates more than one batch of pending work; what it misses is counted as
+ * skipped and can still be read from the store.
+ * </p>
+ */
+public class ExchangeBroadcaster implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExchangeBroadcaster.class);
+
+    private final int maxBatchSize;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Receives batches of exchanges.
+     */
+    @FunctionalInterface
+    public interface Subscriber {
+
+        /**
+         * Delivers a batch of new exchanges.
+         *
+         * @param exchanges
+         *            the exchanges, most recent first
+         * @param skipped
+         *            the number of exchanges dropped since the previous batch
+         *            because the subscriber could not keep up
+         * @return a future completing once the batch has been applied
+         */
+        Future<?> deliver(List<CapturedExchange> exchanges, int skipped);
+    }
+
+    /**
+     * Creates a broadcaster.
+     *
+     * @param framesPerSecond
+     *            the maximum number of batches delivered to each subscriber per
+     *            second
+     * @param maxBatchSize
+     *            the maximum number of exchanges in one batch
+     */
+    public ExchangeBroadcaster(int framesPerSecond, int maxBatchSize) {
+        if (framesPerSecond <= 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Frame rate and batch size must be positive");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "exchange-broadcaster");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodMillis = Math.max(1, 1000 / framesPerSecond);
+        scheduler.scheduleAtFixedRate(this::flush, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Offers a stored exchange to every subscription.
+     */
+    public void publish(CapturedExchange exchange) {
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(exchange);
+        }
+    }
+
+    /**
+     * Subscribes to new exchanges until the returned subscription is cancelled.
+     */
+    public Subscription subscribe(Subscriber subscriber) {
+        Subscription subscription = new Subscription(subscriber);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    private void flush() {
+        for (Subscription subscription : subscriptions) {
+            try {
+                subscription.flush();
+            } catch (RuntimeException e) {
+                // Typically the UI was detached without cancelling its subscription
+                logger.debug("Cancelling exchange subscription after failed delivery", e);
+                subscription.cancel();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        subscriptions.clear();
+    }
+
+    /**
+     * Handle of a single subscriber.
+     */
+    public final class Subscription {
+        private final Subscriber subscriber;
+        private final Deque<CapturedExchange> pending = new ArrayDeque<>();
+        private int skipped;
+        private Future<?> inFlight;
+
+        private Subscription(Subscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        private synchronized void offer(CapturedExchange exchange) {
+            if (pending.size() == maxBatchSize) {
+                pending.removeLast();
+                skipped++;
+            }
+            pending.addFirst(exchange);
+        }
+
+        private void flush() {
+            List<CapturedExchange> batch;
+            int batchSkipped;
+            synchronized (this) {
+                if (pending.isEmpty() || (inFlight != null && !inFlight.isDone())) {
+                    return;
+                }
+                batch = new ArrayList<>(pending);
+                batchSkipped = skipped;
+                pending.clear();
+                skipped = 0;
+            }
+            // Concurrent requests may have been published slightly out of order
+            batch.sort(Comparator.comparingLong(CapturedExchange::getId).reversed());
+            Future<?> delivery = subscriber.deliver(batch, batchSkipped);
+            synchronized (this) {
+                inFlight = delivery;
+            }
+        }
+
+        /**
+         * Stops delivering exchanges to the subscriber.
+         */
+        public void cancel() {
+            subscriptions.remove(this);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.vaadin.kitchensink.exchanges;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Criteria for selecting captured exchanges. Every criterion is optional, a
+ * {@code null} value matches everything.
+ *
+ * @param method
+ *            the HTTP method, compared ignoring case
+ * @param pathPrefix
+ *            the start of the request path
+ * @param statusClass
+ *            the first digit of the response status, for example {@code 5} for
+ *            server errors
+ * @param minDuration
+ *            the minimum time taken, inclusive
+ * @param maxDuration
+ *            the maximum time taken, inclusive
+ * @param from
+ *            the earliest timestamp, inclusive
+ * @param to
+ *            the latest timestamp, exclusive
+ * @param maxId
+ *            the highest exchange id, used to keep paging stable while new
+ *            exchanges arrive
+ */
+public record ExchangeFilter(String method, String pathPrefix, Integer statusClass, Duration minDuration,
+        Duration maxDuration, Instant from, Instant to, Long maxId) {
+
+    /**
+     * Filter matching every exchange.
+     */
+    public static final ExchangeFilter NONE = new ExchangeFilter(null, null, null, null, null, null, null, null);
+
+    /**
+     * Returns a copy of this filter that only matches exchanges up to the given id.
+     */
+    public ExchangeFilter withMaxId(Long maxId) {
+        return new ExchangeFilter(method, pathPrefix, statusClass, minDuration, maxDuration, from, to, maxId);
+    }
+
+    public boolean matches(CapturedExchange exchange) {
+        if (maxId != null && exchange.getId() > maxId) {
+            return false;
+        }
+        if (method != null && !method.equalsIgnoreCase(exchange.getMethod())) {
+            return false;
+        }
+        if (pathPrefix != null && !exchange.getPath().startsWith(pathPrefix)) {
+            return false;
+        }
+        if (statusClass != null && exchange.getStatus() / 100 != statusClass) {
+            return false;
+        }
+        if (minDuration != null || maxDuration != null) {
+            Duration timeTaken = exchange.getTimeTaken();
+            if (timeTaken == null
+                    || (minDuration != null && timeTaken.compareTo(minDuration) < 0)
+                    || (maxDuration != null && timeTaken.compareTo(maxDuration) > 0)) {
+                return false;
+            }
+        }
+        if (from != null && exchange.getTimestamp().isBefore(from)) {
+            return false;
+        }
+        return to == null || exchange.getTimestamp().isBefore(to);
+    }
+}
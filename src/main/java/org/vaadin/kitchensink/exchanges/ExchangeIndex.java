@@ -0,0 +1,218 @@
+package org.vaadin.kitchensink.exchanges;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Secondary indexes over the slots of a {@link RingBufferHttpExchangeRepository}.
+ * <p>
+ * Every index maps a key to a bitmap of ring slots: one bitmap per status class,
+ * one per power-of-two duration bucket in milliseconds and one per node of a trie
+ * of path segments, where a node holds every slot whose path starts with that
+ * node's segments. Appending an exchange sets a bounded number of bits and
+ * evicting one clears them again, so the indexes always cover exactly the ring.
+ * </p>
+ * <p>
+ * Indexes are maintained without locks. Removing an exchange clears only the bits
+ * derived from it. When a writer is overtaken by another one a full lap later it
+ * can still clear bits the newer exchange shares with the one it replaced, so the
+ * repository re-applies the bits of whatever the slot holds after each update.
+ * A slot may therefore briefly carry stale bits but never misses its current
+ * exchange; the index only produces candidates and every candidate is checked
+ * against the filter before it is returned.
+ * </p>
+ */
+final class ExchangeIndex {
+
+    private static final int STATUS_CLASSES = 10;
+    private static final int DURATION_BUCKETS = 32;
+    private static final int NO_DURATION_BUCKET = DURATION_BUCKETS;
+    private static final int MAX_PATH_DEPTH = 6;
+    private static final int MAX_PATH_NODES = 512;
+
+    private final int capacity;
+    private final AtomicBitSet[] statusClasses = new AtomicBitSet[STATUS_CLASSES];
+    private final AtomicBitSet[] durationBuckets = new AtomicBitSet[DURATION_BUCKETS + 1];
+    private final PathNode paths;
+    private final AtomicInteger pathNodes = new AtomicInteger();
+
+    ExchangeIndex(int capacity) {
+        this.capacity = capacity;
+        for (int i = 0; i < statusClasses.length; i++) {
+            statusClasses[i] = new AtomicBitSet(capacity);
+        }
+        for (int i = 0; i < durationBuckets.length; i++) {
+            durationBuckets[i] = new AtomicBitSet(capacity);
+        }
+        paths = new PathNode(capacity);
+    }
+
+    void add(int slot, CapturedExchange exchange) {
+        statusClasses[statusClass(exchange.getStatus())].set(slot);
+        durationBuckets[durationBucket(exchange.getTimeTaken())].set(slot);
+
+        PathNode node = paths;
+        node.slots.set(slot);
+        String path = exchange.getPath();
+        int start = 1;
+        for (int depth = 0; depth < MAX_PATH_DEPTH && start < path.length(); depth++) {
+            int end = segmentEnd(path, start);
+            node = node.child(path.substring(start, end), this);
+            if (node == null) {
+                break;
+            }
+            node.slots.set(slot);
+            start = end + 1;
+        }
+    }
+
+    void remove(int slot, CapturedExchange exchange) {
+        statusClasses[statusClass(exchange.getStatus())].clear(slot);
+        durationBuckets[durationBucket(exchange.getTimeTaken())].clear(slot);
+
+        PathNode node = paths;
+        node.slots.clear(slot);
+        String path = exchange.getPath();
+        int start = 1;
+        for (int depth = 0; depth < MAX_PATH_DEPTH && start < path.length(); depth++) {
+            int end = segmentEnd(path, start);
+            node = node.children.get(path.substring(start, end));
+            if (node == null) {
+                break;
+            }
+            node.slots.clear(slot);
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Returns a bitmap of the slots that may match the filter, or {@code null} if
+     * the filter has no indexed criteria and every slot has to be considered.
+     */
+    long[] candidates(ExchangeFilter filter) {
+        long[] result = null;
+        if (filter.statusClass() != null) {
+            long[] words = new long[AtomicBitSet.wordCount(capacity)];
+            int statusClass = filter.statusClass();
+            if (statusClass >= 0 && statusClass < STATUS_CLASSES) {
+                statusClasses[statusClass].orInto(words);
+            }
+            result = words;
+        }
+        if (filter.minDuration() != null || filter.maxDuration() != null) {
+            long[] words = new long[AtomicBitSet.wordCount(capacity)];
+            int from = filter.minDuration() != null ? durationBucket(filter.minDuration()) : 0;
+            int to = filter.maxDuration() != null ? durationBucket(filter.maxDuration()) : DURATION_BUCKETS - 1;
+            for (int bucket = from; bucket <= to; bucket++) {
+                durationBuckets[bucket].orInto(words);
+            }
+            result = and(result, words);
+        }
+        if (filter.pathPrefix() != null) {
+            long[] words = new long[AtomicBitSet.wordCount(capacity)];
+            pathCandidates(filter.pathPrefix(), words);
+            result = and(result, words);
+        }
+        return result;
+    }
+
+    private void pathCandidates(String prefix, long[] words) {
+        if (!prefix.startsWith("/")) {
+            return;
+        }
+        PathNode node = paths;
+        int start = 1;
+        for (int depth = 0; depth < MAX_PATH_DEPTH; depth++) {
+            int end = prefix.indexOf('/', start);
+            if (end < 0) {
+                // The last segment may be incomplete, any child starting with it is a candidate
+                String partial = prefix.substring(start);
+                if (partial.isEmpty() || node.truncated) {
+                    node.slots.orInto(words);
+                } else {
+                    PathNode exact = node.children.get(partial);
+                    if (exact != null) {
+                        exact.slots.orInto(words);
+                    }
+                    node.children.forEach((segment, child) -> {
+                        if (segment.startsWith(partial) && child != exact) {
+                            child.slots.orInto(words);
+                        }
+                    });
+                }
+                return;
+            }
+            PathNode child = node.children.get(prefix.substring(start, end));
+            if (child == null) {
+                if (node.truncated) {
+                    node.slots.orInto(words);
+                }
+                return;
+            }
+            node = child;
+            start = end + 1;
+        }
+        // Deeper than the trie goes, everything under the deepest node is a candidate
+        node.slots.orInto(words);
+    }
+
+    private static long[] and(long[] current, long[] words) {
+        if (current == null) {
+            return words;
+        }
+        for (int i = 0; i < current.length; i++) {
+            current[i] &= words[i];
+        }
+        return current;
+    }
+
+    private static int segmentEnd(String path, int start) {
+        int end = path.indexOf('/', start);
+        return end < 0 ? path.length() : end;
+    }
+
+    private static int statusClass(int status) {
+        int statusClass = status / 100;
+        return statusClass >= 0 && statusClass < STATUS_CLASSES ? statusClass : 0;
+    }
+
+    private static int durationBucket(Duration timeTaken) {
+        if (timeTaken == null) {
+            return NO_DURATION_BUCKET;
+        }
+        long millis = Math.max(0, timeTaken.toMillis());
+        return Math.min(Long.SIZE - Long.numberOfLeadingZeros(millis), DURATION_BUCKETS - 1);
+    }
+
+    private static final class PathNode {
+        private final AtomicBitSet slots;
+        private final ConcurrentMap<String, PathNode> children = new ConcurrentHashMap<>();
+        // Set once a child could not be created, so lookups below this node fall back to it
+        private volatile boolean truncated;
+
+        PathNode(int capacity) {
+            slots = new AtomicBitSet(capacity);
+        }
+
+        PathNode child(String segment, ExchangeIndex index) {
+            PathNode child = children.get(segment);
+            if (child != null) {
+                return child;
+            }
+            if (index.pathNodes.incrementAndGet() > MAX_PATH_NODES) {
+                index.pathNodes.decrementAndGet();
+                truncated = true;
+                return null;
+            }
+            PathNode created = new PathNode(index.capacity);
+            child = children.putIfAbsent(segment, created);
+            if (child != null) {
+                index.pathNodes.decrementAndGet();
+                return child;
+            }
+            return created;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.vaadin.kitchensink.exchanges;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * Evaluates {@link ExchangeQuery queries} over a stream of exchanges, shared by
+ * the store implementations.
+ */
+final class ExchangeQueries {
+
+    private ExchangeQueries() {
+    }
+
+    /**
+     * Returns the requested page of exchanges.
+     *
+     * @param newestFirst
+     *            every exchange of the store, most recent first
+     * @param query
+     *            the query to evaluate
+     * @return the matching exchanges for the requested page
+     */
+    static List<CapturedExchange> execute(Stream<CapturedExchange> newestFirst, ExchangeQuery query) {
+        Stream<CapturedExchange> matching = newestFirst.filter(query.filter()::matches);
+        if (query.sort().equals(ExchangeQuery.Sort.NEWEST_FIRST)) {
+            // Already in store order, stop reading as soon as the page is full
+            return matching.skip(query.offset()).limit(query.limit()).toList();
+        }
+        return selectPage(matching, query.sort().comparator(), query.offset(), query.limit());
+    }
+
+    /**
+     * Keeps only the first {@code offset + limit} elements in a bounded heap, so
+     * sorting a large history needs memory proportional to the page, not to the
+     * number of matches.
+     */
+    private static List<CapturedExchange> selectPage(Stream<CapturedExchange> matching,
+            Comparator<CapturedExchange> comparator, int offset, int limit) {
+        int keep = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        if (keep == 0) {
+            return List.of();
+        }
+        PriorityQueue<CapturedExchange> heap = new PriorityQueue<>(Math.min(keep, 1024), comparator.reversed());
+        matching.forEach(exchange -> {
+            if (heap.size() < keep) {
+                heap.add(exchange);
+            } else if (comparator.compare(exchange, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(exchange);
+            }
+        });
+        List<CapturedExchange> sorted = new ArrayList<>(heap);
+        sorted.sort(comparator);
+        return offset >= sorted.size() ? List.of() : List.copyOf(sorted.subList(offset, sorted.size()));
+    }
+}
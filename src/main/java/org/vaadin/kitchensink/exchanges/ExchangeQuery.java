@@ -0,0 +1,63 @@
+package org.vaadin.kitchensink.exchanges;
+
+import java.time.Duration;
+import java.util.Comparator;
+
+/**
+ * A page of captured exchanges to fetch from an {@link HttpExchangeStore}.
+ *
+ * @param filter
+ *            the exchanges to include
+ * @param sort
+ *            the order of the results
+ * @param offset
+ *            the number of matching exchanges to skip
+ * @param limit
+ *            the maximum number of exchanges to return
+ */
+public record ExchangeQuery(ExchangeFilter filter, Sort sort, int offset, int limit) {
+
+    /**
+     * Field to sort captured exchanges by.
+     */
+    public enum SortField {
+        TIME, METHOD, PATH, STATUS, DURATION
+    }
+
+    /**
+     * Sort order of a query. Ties are broken by the most recent exchange first.
+     *
+     * @param field
+     *            the field to sort by
+     * @param descending
+     *            whether larger values come first
+     */
+    public record Sort(SortField field, boolean descending) {
+
+        /**
+         * Most recent exchanges first, the natural order of every store.
+         */
+        public static final Sort NEWEST_FIRST = new Sort(SortField.TIME, true);
+
+        Comparator<CapturedExchange> comparator() {
+            Comparator<CapturedExchange> comparator = switch (field) {
+                case TIME -> Comparator.comparingLong(CapturedExchange::getId);
+                case METHOD -> Comparator.comparing(CapturedExchange::getMethod);
+                case PATH -> Comparator.comparing(CapturedExchange::getPath);
+                case STATUS -> Comparator.comparingInt(CapturedExchange::getStatus);
+                case DURATION -> Comparator.comparing(CapturedExchange::getTimeTaken,
+                        Comparator.nullsFirst(Comparator.<Duration> naturalOrder()));
+            };
+            if (descending) {
+                comparator = comparator.reversed();
+            }
+            return comparator.thenComparing(Comparator.comparingLong(CapturedExchange::getId).reversed());
+        }
+    }
+
+    public ExchangeQuery {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative");
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package org.vaadin.kitchensink.exchanges;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.boot.actuate.web.exchanges.HttpExchange;
+
+/**
+ * Compact binary encoding of {@link HttpExchange} instances used by the on-disk
+ * journal.
+ * <p>
+ * A record starts with fixed-width fields (timestamp, duration, status) followed by
+ * variable-length strings and header maps. Lengths and counts are written as
+ * unsigned varints and strings as UTF-8, with a length of zero marking
+ * {@code null}.
+ * </p>
+ * <p>
+ * The same primitives encode the details of exchanges kept on the heap, where
+ * header names and frequent values are replaced by codes of a
+ * {@link HeaderDictionary}.
+ * </p>
+ */
+final class ExchangeRecordCodec {
+
+    private static final int NO_STATUS = -1;
+    private static final long NO_DURATION = -1;
+
+    private ExchangeRecordCodec() {
+    }
+
+    static byte[] encode(HttpExchange exchange) {
+        Writer writer = new Writer();
+        Instant timestamp = exchange.getTimestamp();
+        writer.writeLong(timestamp.getEpochSecond());
+        writer.writeInt(timestamp.getNano());
+        writer.writeLong(exchange.getTimeTaken() != null ? exchange.getTimeTaken().toNanos() : NO_DURATION);
+        writer.writeInt(exchange.getResponse() != null ? exchange.getResponse().getStatus() : NO_STATUS);
+
+        HttpExchange.Request request = exchange.getRequest();
+        writer.writeString(request.getMethod());
+        writer.writeString(request.getUri().toString());
+        writer.writeString(request.getRemoteAddress());
+        writer.writeString(exchange.getPrincipal() != null ? exchange.getPrincipal().getName() : null);
+        writer.writeString(exchange.getSession() != null ? exchange.getSession().getId() : null);
+        writer.writeHeaders(request.getHeaders());
+        if (exchange.getResponse() != null) {
+            writer.writeHeaders(exchange.getResponse().getHeaders());
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decodes only the fixed fields, method and URI of a record. The returned
+     * exchange is materialized by the given loader when it is accessed.
+     */
+    static CapturedExchange decodeSummary(long id, ByteBuffer record,
+            Function<CapturedExchange, HttpExchange> loader) {
+        Reader reader = new Reader(record.duplicate());
+        Instant timestamp = Instant.ofEpochSecond(reader.readLong(), reader.readInt());
+        long timeTakenNanos = reader.readLong();
+        int status = reader.readInt();
+        String method = reader.readString();
+        String uri = reader.readString();
+        return new CapturedExchange(id, timestamp, method, uri,
+                status != NO_STATUS ? status : CapturedExchange.NO_STATUS,
+                timeTakenNanos != NO_DURATION ? Duration.ofNanos(timeTakenNanos) : null, loader);
+    }
+
+    /**
+     * Creates an exchange for the heap that keeps the fields used for listing as
+     * objects and everything else encoded against the given dictionary.
+     */
+    static CapturedExchange compact(long id, HttpExchange exchange, HeaderDictionary dictionary) {
+        Writer writer = new Writer();
+        HttpExchange.Request request = exchange.getRequest();
+        dictionary.writeValue(request.getRemoteAddress(), writer);
+        writer.writeString(exchange.getPrincipal() != null ? exchange.getPrincipal().getName() : null);
+        writer.writeString(exchange.getSession() != null ? exchange.getSession().getId() : null);
+        dictionary.writeHeaders(request.getHeaders(), writer);
+        if (exchange.getResponse() != null) {
+            dictionary.writeHeaders(exchange.getResponse().getHeaders(), writer);
+        }
+        byte[] details = writer.toByteArray();
+        return new CapturedExchange(id, exchange.getTimestamp(), request.getMethod(), request.getUri().toString(),
+                exchange.getResponse() != null ? exchange.getResponse().getStatus() : CapturedExchange.NO_STATUS,
+                exchange.getTimeTaken(), captured -> expand(captured, details, dictionary));
+    }
+
+    private static HttpExchange expand(CapturedExchange captured, byte[] details, HeaderDictionary dictionary) {
+        Reader reader = new Reader(ByteBuffer.wrap(details));
+        String remoteAddress = dictionary.readValue(reader);
+        String principal = reader.readString();
+        String session = reader.readString();
+        HttpExchange.Request request = new HttpExchange.Request(URI.create(captured.getUri()), remoteAddress,
+                captured.getMethod(), dictionary.readHeaders(reader));
+        HttpExchange.Response response = captured.getStatus() != CapturedExchange.NO_STATUS
+                ? new HttpExchange.Response(captured.getStatus(), dictionary.readHeaders(reader))
+                : null;
+
+        return new HttpExchange(captured.getTimestamp(), request, response,
+                principal != null ? new HttpExchange.Principal(principal) : null,
+                session != null ? new HttpExchange.Session(session) : null,
+                captured.getTimeTaken());
+    }
+
+    /**
+     * Creates an exchange from the summary fields alone, for records whose details
+     * are no longer available.
+     */
+    static HttpExchange summaryOnly(CapturedExchange captured) {
+        HttpExchange.Request request = new HttpExchange.Request(URI.create(captured.getUri()), null,
+                captured.getMethod(), Map.of());
+        HttpExchange.Response response = captured.getStatus() != CapturedExchange.NO_STATUS
+                ? new HttpExchange.Response(captured.getStatus(), Map.of())
+                : null;
+        return new HttpExchange(captured.getTimestamp(), request, response, null, null, captured.getTimeTaken());
+    }
+
+    static HttpExchange decode(ByteBuffer record) {
+        Reader reader = new Reader(record);
+        Instant timestamp = Instant.ofEpochSecond(reader.readLong(), reader.readInt());
+        long timeTakenNanos = reader.readLong();
+        int status = reader.readInt();
+
+        String method = reader.readString();
+        URI uri = URI.create(reader.readString());
+        String remoteAddress = reader.readString();
+        String principal = reader.readString();
+        String session = reader.readString();
+        HttpExchange.Request request = new HttpExchange.Request(uri, remoteAddress, method, reader.readHeaders());
+        HttpExchange.Response response = status != NO_STATUS
+                ? new HttpExchange.Response(status, reader.readHeaders())
+                : null;
+
+        return new HttpExchange(timestamp, request, response,
+                principal != null ? new HttpExchange.Principal(principal) : null,
+                session != null ? new HttpExchange.Session(session) : null,
+                timeTakenNanos != NO_DURATION ? Duration.ofNanos(timeTakenNanos) : null);
+    }
+
+    static final class Writer {
+        private byte[] bytes = new byte[512];
+        private int size;
+
+        void writeLong(long value) {
+            ensureCapacity(Long.BYTES);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeInt(int value) {
+            ensureCapacity(Integer.BYTES);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeVarInt(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(utf8.length + 1);
+            ensureCapacity(utf8.length);
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+        }
+
+        void writeHeaders(Map<String, List<String>> headers) {
+            writeVarInt(headers.size());
+            headers.forEach((name, values) -> {
+                writeString(name);
+                writeVarInt(values.size());
+                values.forEach(this::writeString);
+            });
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private void ensureCapacity(int additional) {
+            if (size + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+            }
+        }
+    }
+
+    static final class Reader {
+        private final ByteBuffer buffer;
+
+        Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        long readLong() {
+            return buffer.getLong();
+        }
+
+        int readInt() {
+            return buffer.getInt();
+        }
+
+        int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        String readString() {
+            int length = readVarInt() - 1;
+            if (length < 0) {
+                return null;
+            }
+            byte[] utf8 = new byte[length];
+            buffer.get(utf8);
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+
+        Map<String, List<String>> readHeaders() {
+            int count = readVarInt();
+            Map<String, List<String>> headers = new LinkedHashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                String name = readString();
+                int valueCount = readVarInt();
+                List<String> values = new ArrayList<>(valueCount);
+                for (int j = 0; j < valueCount; j++) {
+                    values.add(readString());
+                }
+                headers.put(name, Collections.unmodifiableList(values));
+            }
+            return Collections.unmodifiableMap(headers);
+        }
+    }
+}
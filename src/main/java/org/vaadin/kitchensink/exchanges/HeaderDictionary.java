@@ -0,0 +1,156 @@
+package org.vaadin.kitchensink.exchanges;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Shared, bounded dictionary of header names and values used to store exchanges
+ * compactly on the heap.
+ * <p>
+ * Header names are assigned a small code the first time they are seen. Values are
+ * only admitted once they have been seen twice, so one-off values such as request
+ * ids do not fill the dictionary, and values of headers carrying credentials or
+ * session cookies are never admitted, so they are released together with the
+ * exchange that holds them. Anything without a code is written inline. Codes are
+ * never reassigned, which keeps every encoded exchange decodable for as long as
+ * the dictionary lives, and decoding returns the one shared instance of each
+ * dictionary string.
+ * </p>
+ */
+final class HeaderDictionary {
+
+    private static final int MAX_NAMES = 512;
+    private static final int MAX_VALUES = 4096;
+    private static final int MAX_VALUE_LENGTH = 512;
+    private static final String[] PRIVATE_HEADERS =
+            { "Authorization", "Proxy-Authorization", "Cookie", "Set-Cookie" };
+
+    private final Table names = new Table(MAX_NAMES);
+    private final Table values = new Table(MAX_VALUES);
+    // Values seen once and waiting for a second sighting, cleared whenever it fills up
+    private final ConcurrentMap<String, Boolean> candidates = new ConcurrentHashMap<>();
+
+    void writeHeaders(Map<String, List<String>> headers, ExchangeRecordCodec.Writer writer) {
+        writer.writeVarInt(headers.size());
+        headers.forEach((name, headerValues) -> {
+            writeReference(names.code(name), name, writer);
+            writer.writeVarInt(headerValues.size());
+            boolean isPrivate = isPrivate(name);
+            for (String value : headerValues) {
+                writeValue(value, isPrivate, writer);
+            }
+        });
+    }
+
+    /**
+     * Writes a value that may be shared between exchanges, such as a remote address.
+     */
+    void writeValue(String value, ExchangeRecordCodec.Writer writer) {
+        writeValue(value, false, writer);
+    }
+
+    Map<String, List<String>> readHeaders(ExchangeRecordCodec.Reader reader) {
+        int count = reader.readVarInt();
+        Map<String, List<String>> headers = new LinkedHashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            String name = readReference(names, reader);
+            int valueCount = reader.readVarInt();
+            List<String> headerValues = new ArrayList<>(valueCount);
+            for (int j = 0; j < valueCount; j++) {
+                headerValues.add(readValue(reader));
+            }
+            headers.put(name, Collections.unmodifiableList(headerValues));
+        }
+        return Collections.unmodifiableMap(headers);
+    }
+
+    String readValue(ExchangeRecordCodec.Reader reader) {
+        return readReference(values, reader);
+    }
+
+    private void writeValue(String value, boolean isPrivate, ExchangeRecordCodec.Writer writer) {
+        int code = -1;
+        if (value != null && !isPrivate && value.length() <= MAX_VALUE_LENGTH) {
+            code = values.find(value);
+            if (code < 0 && candidates.remove(value) != null) {
+                code = values.code(value);
+            } else if (code < 0) {
+                if (candidates.size() >= MAX_VALUES) {
+                    candidates.clear();
+                }
+                candidates.put(value, Boolean.TRUE);
+            }
+        }
+        writeReference(code, value, writer);
+    }
+
+    private static void writeReference(int code, String value, ExchangeRecordCodec.Writer writer) {
+        if (code >= 0) {
+            writer.writeVarInt(code + 1);
+        } else {
+            writer.writeVarInt(0);
+            writer.writeString(value);
+        }
+    }
+
+    private static String readReference(Table table, ExchangeRecordCodec.Reader reader) {
+        int code = reader.readVarInt() - 1;
+        return code >= 0 ? table.get(code) : reader.readString();
+    }
+
+    private static boolean isPrivate(String name) {
+        for (String privateHeader : PRIVATE_HEADERS) {
+            if (privateHeader.equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Table {
+        private final int capacity;
+        private final ConcurrentMap<String, Integer> codes = new ConcurrentHashMap<>();
+        private final AtomicReferenceArray<String> entries;
+        private final AtomicInteger size = new AtomicInteger();
+
+        Table(int capacity) {
+            this.capacity = capacity;
+            this.entries = new AtomicReferenceArray<>(capacity);
+        }
+
+        int find(String value) {
+            Integer code = codes.get(value);
+            return code != null ? code : -1;
+        }
+
+        /**
+         * Returns the code of the value, assigning one if there is room left, or -1.
+         */
+        int code(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = codes.computeIfAbsent(value, key -> {
+                    int assigned = size.getAndIncrement();
+                    if (assigned >= capacity) {
+                        size.decrementAndGet();
+                        return null;
+                    }
+                    entries.set(assigned, key);
+                    return assigned;
+                });
+            }
+            return code != null ? code : -1;
+        }
+
+        String get(int code) {
+            return entries.get(code);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.vaadin.kitchensink.exchanges;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.web.exchanges.HttpExchangesEndpoint;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Streams the captured exchange history as NDJSON or CSV below the
+ * {@code httpexchanges} actuator endpoint. Accepts the same criteria as the HTTP
+ * History view, for example
+ * {@code /actuator/httpexchanges/export?format=csv&status=5&gzip=true}.
+ * <p>
+ * The export is only mapped while the {@code httpexchanges} endpoint is enabled
+ * and exposed, so {@code management.endpoints.web.exposure} governs both, and the
+ * security configuration restricts the path to administrators. Sensitive header
+ * values are masked by the {@link HttpExchangeExporter}.
+ * </p>
+ */
+@RestController
+@ConditionalOnAvailableEndpoint(endpoint = HttpExchangesEndpoint.class)
+public class HttpExchangeExportController {
+
+    private final HttpExchangeExporter exporter;
+
+    public HttpExchangeExportController(HttpExchangeExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    @GetMapping("${management.endpoints.web.base-path:/actuator}/httpexchanges/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) String method,
+            @RequestParam(required = false) String path,
+            @RequestParam(required = false) Integer status,
+            @RequestParam(required = false) Long minDurationMs,
+            @RequestParam(required = false) Long maxDurationMs,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        HttpExchangeExporter.Format exportFormat;
+        try {
+            exportFormat = HttpExchangeExporter.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + format);
+        }
+        ExchangeFilter filter = new ExchangeFilter(method, path, status,
+                minDurationMs != null ? Duration.ofMillis(minDurationMs) : null,
+                maxDurationMs != null ? Duration.ofMillis(maxDurationMs) : null,
+                from, to, null);
+        StreamingResponseBody body = out -> exporter.export(filter, exportFormat, gzip, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + HttpExchangeExporter.fileName(exportFormat, gzip) + "\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,245 @@
+package org.vaadin.kitchensink.exchanges;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.boot.actuate.web.exchanges.HttpExchange;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Writes the exchange history held by an {@link HttpExchangeStore} to a stream.
+ * <p>
+ * Exchanges are pulled from {@link HttpExchangeStore#stream(ExchangeFilter)} one
+ * at a time and written as they are read, so the memory used does not depend on
+ * how much history is exported. NDJSON is written with Jackson's streaming
+ * generator and contains every recorded field including headers. CSV has one
+ * flat row per exchange without headers.
+ * </p>
+ * <p>
+ * Exports leave the application, so the values of headers carrying credentials
+ * or session identifiers are replaced by {@value #MASK}. The header names are
+ * kept, which still shows whether a request was authenticated. The recorded
+ * session id is the value of the session cookie and is masked along with the
+ * {@code Cookie} header.
+ * </p>
+ */
+public class HttpExchangeExporter {
+
+    /**
+     * Headers masked unless configured otherwise.
+     */
+    public static final Set<String> DEFAULT_MASKED_HEADERS = Set.of("authorization", "proxy-authorization",
+            "cookie", "set-cookie", "x-api-key", "x-auth-token", "x-csrf-token", "x-xsrf-token");
+
+    /**
+     * Replacement written for the values of masked headers.
+     */
+    public static final String MASK = "******";
+
+    private static final String[] CSV_COLUMNS = { "timestamp", "method", "uri", "status", "timeTakenMs",
+            "remoteAddress", "principal", "session" };
+
+    private final HttpExchangeStore exchangeStore;
+    private final Set<String> maskedHeaders;
+    private final boolean maskSessionId;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * Supported output formats.
+     */
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    public HttpExchangeExporter(HttpExchangeStore exchangeStore) {
+        this(exchangeStore, DEFAULT_MASKED_HEADERS);
+    }
+
+    /**
+     * Creates an exporter masking the values of the given headers.
+     *
+     * @param exchangeStore
+     *            the store to read exchanges from
+     * @param maskedHeaders
+     *            the names of the headers to mask, ignoring case
+     */
+    public HttpExchangeExporter(HttpExchangeStore exchangeStore, Collection<String> maskedHeaders) {
+        this.exchangeStore = exchangeStore;
+        this.maskedHeaders = maskedHeaders.stream()
+                .map(name -> name.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.maskSessionId = this.maskedHeaders.contains("cookie");
+    }
+
+    /**
+     * Returns the file name to suggest for an export.
+     */
+    public static String fileName(Format format, boolean gzip) {
+        return "http-exchanges." + format.getExtension() + (gzip ? ".gz" : "");
+    }
+
+    /**
+     * Writes the exchanges matching the filter, most recent first. The given
+     * stream is flushed but not closed.
+     *
+     * @param filter
+     *            the criteria exchanges must match
+     * @param format
+     *            the output format
+     * @param gzip
+     *            whether to gzip-compress the output
+     * @param out
+     *            the stream to write to
+     * @throws IOException
+     *             if writing fails, for example because the client went away
+     */
+    public void export(ExchangeFilter filter, Format format, boolean gzip, OutputStream out) throws IOException {
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, 8192) : null;
+        OutputStream target = compressed != null ? compressed : out;
+        try (Stream<CapturedExchange> exchanges = exchangeStore.stream(filter)) {
+            Iterator<CapturedExchange> iterator = exchanges.iterator();
+            if (format == Format.NDJSON) {
+                writeNdjson(iterator, target);
+            } else {
+                writeCsv(iterator, target);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (compressed != null) {
+            compressed.finish();
+        }
+        out.flush();
+    }
+
+    private void writeNdjson(Iterator<CapturedExchange> exchanges, OutputStream out) throws IOException {
+        JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        while (exchanges.hasNext()) {
+            CapturedExchange captured = exchanges.next();
+            HttpExchange exchange = captured.getExchange();
+            generator.writeStartObject();
+            generator.writeStringField("timestamp", captured.getTimestamp().toString());
+            generator.writeStringField("method", captured.getMethod());
+            generator.writeStringField("uri", captured.getUri());
+            if (captured.getStatus() != CapturedExchange.NO_STATUS) {
+                generator.writeNumberField("status", captured.getStatus());
+            }
+            if (captured.getTimeTaken() != null) {
+                generator.writeNumberField("timeTakenMs", captured.getTimeTaken().toMillis());
+            }
+            writeOptionalField(generator, "remoteAddress", exchange.getRequest().getRemoteAddress());
+            writeOptionalField(generator, "principal",
+                    exchange.getPrincipal() != null ? exchange.getPrincipal().getName() : null);
+            writeOptionalField(generator, "session", sessionId(exchange));
+            writeHeaders(generator, "requestHeaders", exchange.getRequest().getHeaders());
+            if (exchange.getResponse() != null) {
+                writeHeaders(generator, "responseHeaders", exchange.getResponse().getHeaders());
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+        generator.close();
+    }
+
+    private String sessionId(HttpExchange exchange) {
+        if (exchange.getSession() == null) {
+            return null;
+        }
+        return maskSessionId ? MASK : exchange.getSession().getId();
+    }
+
+    private static void writeOptionalField(JsonGenerator generator, String name, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        }
+    }
+
+    private void writeHeaders(JsonGenerator generator, String name, Map<String, List<String>> headers)
+            throws IOException {
+        generator.writeObjectFieldStart(name);
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            boolean masked = maskedHeaders.contains(header.getKey().toLowerCase(Locale.ROOT));
+            generator.writeArrayFieldStart(header.getKey());
+            for (String value : header.getValue()) {
+                generator.writeString(masked ? MASK : value);
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeCsv(Iterator<CapturedExchange> exchanges, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", CSV_COLUMNS));
+        writer.write("\r\n");
+        while (exchanges.hasNext()) {
+            CapturedExchange captured = exchanges.next();
+            HttpExchange exchange = captured.getExchange();
+            writeCsvValue(writer, captured.getTimestamp().toString(), false);
+            writeCsvValue(writer, captured.getMethod(), true);
+            writeCsvValue(writer, captured.getUri(), true);
+            writeCsvValue(writer, captured.getStatus() != CapturedExchange.NO_STATUS
+                    ? String.valueOf(captured.getStatus()) : null, true);
+            writeCsvValue(writer, captured.getTimeTaken() != null
+                    ? String.valueOf(captured.getTimeTaken().toMillis()) : null, true);
+            writeCsvValue(writer, exchange.getRequest().getRemoteAddress(), true);
+            writeCsvValue(writer, exchange.getPrincipal() != null ? exchange.getPrincipal().getName() : null, true);
+            writeCsvValue(writer, sessionId(exchange), true);
+            writer.write("\r\n");
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvValue(Writer writer, String value, boolean separator) throws IOException {
+        if (separator) {
+            writer.write(',');
+        }
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,329 @@
+package org.vaadin.kitchensink.exchanges;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration properties for capturing HTTP exchanges, bound from the
+ * {@code kitchen-sink.exchanges} prefix.
+ */
+@ConfigurationProperties(prefix = "kitchen-sink.exchanges")
+public class HttpExchangeProperties {
+
+    /**
+     * Where captured exchanges are kept.
+     */
+    public enum Store {
+        /**
+         * Lock-free ring buffer on the heap, lost on restart.
+         */
+        MEMORY,
+        /**
+         * Memory-mapped segment files on disk, retained across restarts.
+         */
+        JOURNAL
+    }
+
+    /**
+     * Number of most recent exchanges kept in memory. With the journal store this
+     * only limits how many exchanges the actuator endpoint returns.
+     */
+    private int capacity = 50;
+
+    /**
+     * Store used for captured exchanges.
+     */
+    private Store store = Store.MEMORY;
+
+    private final Journal journal = new Journal();
+
+    private final Capture capture = new Capture();
+
+    private final Sampling sampling = new Sampling();
+
+    private final Latency latency = new Latency();
+
+    private final Push push = new Push();
+
+    private final Export export = new Export();
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public Store getStore() {
+        return store;
+    }
+
+    public void setStore(Store store) {
+        this.store = store;
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    public Capture getCapture() {
+        return capture;
+    }
+
+    public Sampling getSampling() {
+        return sampling;
+    }
+
+    public Latency getLatency() {
+        return latency;
+    }
+
+    public Push getPush() {
+        return push;
+    }
+
+    public Export getExport() {
+        return export;
+    }
+
+    /**
+     * Settings for the {@link Store#JOURNAL} store.
+     */
+    public static class Journal {
+
+        /**
+         * Directory holding the journal segment files.
+         */
+        private String directory = System.getProperty("java.io.tmpdir") + "/kitchen-sink/exchanges";
+
+        /**
+         * Size of a single memory-mapped segment file.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        /**
+         * Total size of all segments after which the oldest segments are deleted.
+         */
+        private DataSize maxSize = DataSize.ofGigabytes(1);
+
+        /**
+         * Age after which segments are deleted.
+         */
+        private Duration maxAge = Duration.ofDays(7);
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public DataSize getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(DataSize segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        public DataSize getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getMaxAge() {
+            return maxAge;
+        }
+
+        public void setMaxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+        }
+    }
+
+    /**
+     * Settings deciding which kinds of traffic are recorded.
+     */
+    public static class Capture {
+
+        /**
+         * Classes of requests that are recorded, the others are only counted.
+         */
+        private Set<RequestClass> classes = EnumSet.of(RequestClass.APPLICATION);
+
+        /**
+         * Ant-style path patterns of static resources.
+         */
+        private List<String> staticPaths = new ArrayList<>(List.of("/VAADIN/**", "/icons/**", "/images/**",
+                "/static/**", "/line-awesome/**", "/favicon.ico", "/sw.js", "/manifest.webmanifest"));
+
+        public Set<RequestClass> getClasses() {
+            return classes;
+        }
+
+        public void setClasses(Set<RequestClass> classes) {
+            this.classes = classes;
+        }
+
+        public List<String> getStaticPaths() {
+            return staticPaths;
+        }
+
+        public void setStaticPaths(List<String> staticPaths) {
+            this.staticPaths = staticPaths;
+        }
+    }
+
+    /**
+     * Settings deciding which requests are recorded.
+     */
+    public static class Sampling {
+
+        /**
+         * Fraction of ordinary requests that are recorded, between 0 and 1.
+         */
+        private double rate = 1.0;
+
+        /**
+         * Maximum number of ordinary requests recorded per second, 0 for no limit.
+         */
+        private int maxPerSecond;
+
+        /**
+         * Requests taking at least this long are always recorded.
+         */
+        private Duration slowThreshold = Duration.ofMillis(500);
+
+        /**
+         * Whether requests answered with a 5xx status are always recorded.
+         */
+        private boolean keepErrors = true;
+
+        public double getRate() {
+            return rate;
+        }
+
+        public void setRate(double rate) {
+            this.rate = rate;
+        }
+
+        public int getMaxPerSecond() {
+            return maxPerSecond;
+        }
+
+        public void setMaxPerSecond(int maxPerSecond) {
+            this.maxPerSecond = maxPerSecond;
+        }
+
+        public Duration getSlowThreshold() {
+            return slowThreshold;
+        }
+
+        public void setSlowThreshold(Duration slowThreshold) {
+            this.slowThreshold = slowThreshold;
+        }
+
+        public boolean isKeepErrors() {
+            return keepErrors;
+        }
+
+        public void setKeepErrors(boolean keepErrors) {
+            this.keepErrors = keepErrors;
+        }
+    }
+
+    /**
+     * Settings for the per-route latency histograms.
+     */
+    public static class Latency {
+
+        /**
+         * Length of one time slice of the sliding window.
+         */
+        private Duration sliceDuration = Duration.ofSeconds(10);
+
+        /**
+         * Number of time slices kept, the longest window is their combined length.
+         */
+        private int slices = 30;
+
+        public Duration getSliceDuration() {
+            return sliceDuration;
+        }
+
+        public void setSliceDuration(Duration sliceDuration) {
+            this.sliceDuration = sliceDuration;
+        }
+
+        public int getSlices() {
+            return slices;
+        }
+
+        public void setSlices(int slices) {
+            this.slices = slices;
+        }
+    }
+
+    /**
+     * Settings for streaming new exchanges to open views.
+     */
+    public static class Push {
+
+        /**
+         * Maximum number of updates pushed to each browser per second.
+         */
+        private int framesPerSecond = 4;
+
+        /**
+         * Maximum number of exchanges carried by one update, older ones are skipped.
+         */
+        private int maxBatchSize = 50;
+
+        public int getFramesPerSecond() {
+            return framesPerSecond;
+        }
+
+        public void setFramesPerSecond(int framesPerSecond) {
+            this.framesPerSecond = framesPerSecond;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+    }
+
+    /**
+     * Settings for exporting the exchange history.
+     */
+    public static class Export {
+
+        /**
+         * Names of request and response headers whose values are masked in exports,
+         * ignoring case.
+         */
+        private Set<String> maskedHeaders = new LinkedHashSet<>(HttpExchangeExporter.DEFAULT_MASKED_HEADERS);
+
+        public Set<String> getMaskedHeaders() {
+            return maskedHeaders;
+        }
+
+        public void setMaskedHeaders(Set<String> maskedHeaders) {
+            this.maskedHeaders = maskedHeaders;
+        }
+    }
+}
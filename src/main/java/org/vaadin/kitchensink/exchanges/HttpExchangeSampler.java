@@ -0,0 +1,150 @@
+package org.vaadin.kitchensink.exchanges;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides which finished requests are worth recording as HTTP exchanges.
+ * <p>
+ * Requests of a {@link RequestClass} that is not captured are only counted.
+ * Among the others, server errors and slow requests are always kept. Everything
+ * else is first sampled at a fixed rate and then limited by a token bucket, so
+ * that the number of exchanges built per second stays bounded no matter how much
+ * traffic the application receives. The decision only needs the request class,
+ * status and elapsed time, so dropped requests never pay for copying headers into
+ * an exchange.
+ * </p>
+ */
+public class HttpExchangeSampler {
+
+    private final Set<RequestClass> capturedClasses;
+    private final double rate;
+    private final long slowThresholdNanos;
+    private final boolean keepErrors;
+
+    // Token bucket implemented as a generic cell rate algorithm: a single
+    // "theoretical arrival time" that advances by one interval per recorded exchange
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder alwaysKept = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder[] excluded = new LongAdder[RequestClass.values().length];
+
+    /**
+     * Creates a sampler.
+     *
+     * @param capturedClasses
+     *            the classes of requests that may be recorded
+     * @param rate
+     *            the fraction of ordinary requests to consider, between 0 and 1
+     * @param maxPerSecond
+     *            the maximum number of ordinary requests recorded per second, or 0
+     *            for no limit
+     * @param slowThreshold
+     *            requests taking at least this long are always kept, or
+     *            {@code null} to disable the rule
+     * @param keepErrors
+     *            whether requests with a status of 500 or above are always kept
+     */
+    public HttpExchangeSampler(Set<RequestClass> capturedClasses, double rate, int maxPerSecond,
+            Duration slowThreshold, boolean keepErrors) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("Sampling rate must be between 0 and 1: " + rate);
+        }
+        this.capturedClasses = capturedClasses.isEmpty() ? EnumSet.noneOf(RequestClass.class)
+                : EnumSet.copyOf(capturedClasses);
+        for (int i = 0; i < excluded.length; i++) {
+            excluded[i] = new LongAdder();
+        }
+        this.rate = rate;
+        this.slowThresholdNanos = slowThreshold != null ? slowThreshold.toNanos() : Long.MAX_VALUE;
+        this.keepErrors = keepErrors;
+        this.intervalNanos = maxPerSecond > 0 ? 1_000_000_000L / maxPerSecond : 0;
+        // Allow bursts of up to one second worth of exchanges
+        this.burstNanos = 1_000_000_000L;
+    }
+
+    /**
+     * Returns whether the finished request should be recorded and updates the
+     * counters accordingly.
+     *
+     * @param requestClass
+     *            the class of the request
+     * @param status
+     *            the response status
+     * @param elapsedNanos
+     *            how long the request took
+     * @return {@code true} if an exchange should be built and stored
+     */
+    public boolean shouldRecord(RequestClass requestClass, int status, long elapsedNanos) {
+        if (!capturedClasses.contains(requestClass)) {
+            excluded[requestClass.ordinal()].increment();
+            return false;
+        }
+        if ((keepErrors && status >= 500) || elapsedNanos >= slowThresholdNanos) {
+            alwaysKept.increment();
+            return true;
+        }
+        if ((rate < 1 && ThreadLocalRandom.current().nextDouble() >= rate) || !tryAcquire()) {
+            dropped.increment();
+            return false;
+        }
+        sampled.increment();
+        return true;
+    }
+
+    private boolean tryAcquire() {
+        if (intervalNanos == 0) {
+            return true;
+        }
+        while (true) {
+            long now = System.nanoTime();
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + intervalNanos;
+            if (next - now > burstNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of ordinary requests that passed sampling and were
+     * recorded.
+     */
+    public long getSampledCount() {
+        return sampled.sum();
+    }
+
+    /**
+     * Returns the number of errors and slow requests recorded regardless of
+     * sampling.
+     */
+    public long getAlwaysKeptCount() {
+        return alwaysKept.sum();
+    }
+
+    /**
+     * Returns the number of requests that were not recorded.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the number of requests of the given class that were not recorded
+     * because the class is not captured.
+     */
+    public long getExcludedCount(RequestClass requestClass) {
+        return excluded[requestClass.ordinal()].sum();
+    }
+}
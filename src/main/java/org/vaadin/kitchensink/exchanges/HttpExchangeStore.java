@@ -0,0 +1,44 @@
+package org.vaadin.kitchensink.exchanges;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.boot.actuate.web.exchanges.HttpExchangeRepository;
+
+/**
+ * {@link HttpExchangeRepository} that can serve filtered, sorted pages of its
+ * history without materializing everything it retains.
+ */
+public interface HttpExchangeStore extends HttpExchangeRepository {
+
+    /**
+     * Returns the page of captured exchanges selected by the query.
+     *
+     * @param query
+     *            the filter, sort order and page to fetch
+     * @return the matching exchanges, never {@code null}
+     */
+    List<CapturedExchange> find(ExchangeQuery query);
+
+    /**
+     * Lazily streams every exchange matching the filter, most recent first, for
+     * consumers that read the whole history such as exports. The stream reflects
+     * the store at the time it is consumed.
+     *
+     * @param filter
+     *            the criteria exchanges must match
+     * @return the matching exchanges
+     */
+    Stream<CapturedExchange> stream(ExchangeFilter filter);
+
+    /**
+     * Registers a listener that is notified of every exchange once it has been
+     * stored. Listeners are called on the thread recording the exchange and must
+     * not block.
+     *
+     * @param listener
+     *            the listener to notify
+     */
+    void addListener(Consumer<CapturedExchange> listener);
+}
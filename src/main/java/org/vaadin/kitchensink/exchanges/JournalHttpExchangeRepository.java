@@ -0,0 +1,523 @@
+package org.vaadin.kitchensink.exchanges;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.web.exchanges.HttpExchange;
+
+/**
+ * {@link HttpExchangeStore} that appends exchanges to memory-mapped segment files,
+ * so that history survives restarts and can grow far beyond what fits on the heap.
+ * <p>
+ * Each segment starts with a fixed header followed by records laid out as
+ * {@code [length][crc32][payload][length]}. The trailing length lets readers walk
+ * a segment backwards from its write position, so the most recent exchanges are
+ * found without any per-record bookkeeping on the heap. When a segment is full it
+ * is sealed by writing its limit into the header and a new segment is started.
+ * </p>
+ * <p>
+ * On startup the records of an unsealed segment are verified one by one and the
+ * write position is placed after the last intact record, discarding a tail that
+ * was only partially written when the process died. Retention is applied whenever
+ * a segment is rolled and periodically in the background: the oldest segments are
+ * deleted while the journal exceeds its size budget or their newest exchange is
+ * older than the maximum age.
+ * </p>
+ * <p>
+ * Readers pin a segment while they read from it. An expired segment is removed
+ * from the journal right away, but it is only unmapped and its file deleted once
+ * the last reader has released it. Exchanges listed from a deleted segment fall
+ * back to their summary fields when their details are requested.
+ * </p>
+ */
+public class JournalHttpExchangeRepository implements HttpExchangeStore, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalHttpExchangeRepository.class);
+
+    private static final int MAGIC = 0x4B534A31; // "KSJ1"
+    private static final int HEADER_SIZE = 32;
+    private static final int SEALED_LIMIT_OFFSET = 4;
+    private static final int NEWEST_TIMESTAMP_OFFSET = 16;
+    private static final int RECORD_OVERHEAD = 3 * Integer.BYTES;
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final Duration MAX_RETENTION_INTERVAL = Duration.ofMinutes(1);
+    private static final Duration MIN_RETENTION_INTERVAL = Duration.ofSeconds(1);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long maxSize;
+    private final Duration maxAge;
+    private final int capacity;
+    private final Clock clock;
+    private final ScheduledExecutorService retentionScheduler;
+
+    private final List<Consumer<CapturedExchange>> listeners = new CopyOnWriteArrayList<>();
+
+    private final Object appendLock = new Object();
+    private volatile List<Segment> segments;
+
+    /**
+     * Opens the journal in the given directory, recovering any existing segments.
+     *
+     * @param directory
+     *            the directory holding the segment files, created if missing
+     * @param segmentSize
+     *            the size of each memory-mapped segment file in bytes
+     * @param maxSize
+     *            the total size of all segments after which the oldest are deleted
+     * @param maxAge
+     *            the age after which segments are deleted
+     * @param capacity
+     *            the number of most recent exchanges returned by {@link #findAll()}
+     * @throws IOException
+     *             if the journal cannot be opened
+     */
+    public JournalHttpExchangeRepository(Path directory, int segmentSize, long maxSize, Duration maxAge,
+            int capacity) throws IOException {
+        this(directory, segmentSize, maxSize, maxAge, capacity, Clock.systemUTC());
+    }
+
+    JournalHttpExchangeRepository(Path directory, int segmentSize, long maxSize, Duration maxAge, int capacity,
+            Clock clock) throws IOException {
+        if (segmentSize <= HEADER_SIZE + RECORD_OVERHEAD) {
+            throw new IllegalArgumentException("Segment size is too small: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSize = maxSize;
+        this.maxAge = maxAge;
+        this.capacity = capacity;
+        this.clock = clock;
+
+        Files.createDirectories(directory);
+        this.segments = recover();
+        applyRetention();
+
+        // Without traffic no segment is rolled, so age-based retention also runs on a timer
+        Duration interval = maxAge.compareTo(MAX_RETENTION_INTERVAL) < 0 ? maxAge : MAX_RETENTION_INTERVAL;
+        long intervalMillis = Math.max(interval.toMillis(), MIN_RETENTION_INTERVAL.toMillis());
+        this.retentionScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "exchange-journal-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+        retentionScheduler.scheduleWithFixedDelay(this::expire, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void add(HttpExchange httpExchange) {
+        // Encode outside the lock, appending is only a copy into the mapped segment
+        byte[] payload = ExchangeRecordCodec.encode(httpExchange);
+        int recordSize = payload.length + RECORD_OVERHEAD;
+        if (recordSize > segmentSize - HEADER_SIZE) {
+            logger.warn("Dropping HTTP exchange of {} bytes, larger than the journal segment size", recordSize);
+            return;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        long timestamp = httpExchange.getTimestamp().toEpochMilli();
+
+        long id;
+        synchronized (appendLock) {
+            List<Segment> current = segments;
+            if (current.isEmpty()) {
+                // Closed during shutdown, late requests are not recorded
+                return;
+            }
+            Segment active = current.get(current.size() - 1);
+            if (active.limit + recordSize > segmentSize) {
+                active = roll(active);
+            }
+            id = active.append(payload, (int) crc.getValue(), timestamp);
+        }
+        if (!listeners.isEmpty()) {
+            CapturedExchange captured = new CapturedExchange(id, httpExchange);
+            listeners.forEach(listener -> listener.accept(captured));
+        }
+    }
+
+    @Override
+    public void addListener(Consumer<CapturedExchange> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Returns at most {@code capacity} of the most recent exchanges, most recent
+     * first. Use {@link #find(ExchangeQuery)} to read further back.
+     */
+    @Override
+    public List<HttpExchange> findAll() {
+        return records().limit(capacity).map(CapturedExchange::getExchange).toList();
+    }
+
+    @Override
+    public List<CapturedExchange> find(ExchangeQuery query) {
+        return ExchangeQueries.execute(records(), query);
+    }
+
+    @Override
+    public Stream<CapturedExchange> stream(ExchangeFilter filter) {
+        return records().filter(filter::matches);
+    }
+
+    /**
+     * Returns the total number of bytes currently mapped by the journal.
+     */
+    public long getSize() {
+        return (long) segments.size() * segmentSize;
+    }
+
+    /**
+     * Streams every retained record, most recent first. Only the summary fields are
+     * decoded, the rest of each record stays in the mapped segment until accessed.
+     */
+    Stream<CapturedExchange> records() {
+        List<Segment> snapshot = segments;
+        // flatMap closes each segment's stream once it has been read, which releases the segment
+        return snapshot.isEmpty() ? Stream.empty()
+                : Stream.iterate(snapshot.size() - 1, i -> i >= 0, i -> i - 1)
+                        .map(snapshot::get)
+                        .flatMap(segment -> segment.acquire()
+                                ? segment.recordsNewestFirst().onClose(segment::release)
+                                : Stream.empty());
+    }
+
+    /**
+     * Deletes the segments that are past the retention limits now. Also runs
+     * periodically in the background.
+     */
+    void expire() {
+        try {
+            synchronized (appendLock) {
+                if (!segments.isEmpty()) {
+                    applyRetention();
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to apply journal retention", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        retentionScheduler.shutdownNow();
+        List<Segment> closed;
+        synchronized (appendLock) {
+            closed = segments;
+            if (!closed.isEmpty()) {
+                closed.get(closed.size() - 1).buffer.force();
+            }
+            segments = List.of();
+        }
+        closed.forEach(Segment::release);
+    }
+
+    private Segment roll(Segment active) {
+        List<Segment> updated = new ArrayList<>(segments);
+        updated.add(next(active));
+        segments = Collections.unmodifiableList(updated);
+        applyRetention();
+        return segments.get(segments.size() - 1);
+    }
+
+    private Segment next(Segment active) {
+        active.seal();
+        try {
+            return Segment.create(segmentPath(active.number + 1), active.number + 1, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create journal segment", e);
+        }
+    }
+
+    /**
+     * Drops expired segments from the journal and releases them. Must be called
+     * while holding the append lock.
+     */
+    private void applyRetention() {
+        long oldestAllowed = clock.millis() - maxAge.toMillis();
+        List<Segment> retained = new ArrayList<>(segments);
+        Segment active = retained.get(retained.size() - 1);
+        if (active.limit > HEADER_SIZE && active.newestTimestamp < oldestAllowed) {
+            // Everything in the active segment has expired, start a new one so it can be deleted too
+            retained.add(next(active));
+        }
+        List<Segment> expired = new ArrayList<>();
+        // The active segment is always kept
+        while (retained.size() > 1 && ((long) retained.size() * segmentSize > maxSize
+                || retained.get(0).newestTimestamp < oldestAllowed)) {
+            expired.add(retained.remove(0));
+        }
+        // Publish first so no new reader picks up an expired segment
+        segments = Collections.unmodifiableList(retained);
+        expired.forEach(Segment::retire);
+    }
+
+    private List<Segment> recover() throws IOException {
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+
+        List<Segment> recovered = new ArrayList<>();
+        for (Path path : paths) {
+            try {
+                recovered.add(Segment.open(path, segmentNumber(path), segmentSize));
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Skipping unreadable journal segment {}", path, e);
+            }
+        }
+        if (recovered.isEmpty()) {
+            recovered.add(Segment.create(segmentPath(0), 0, segmentSize));
+        } else if (recovered.get(recovered.size() - 1).sealed) {
+            long number = recovered.get(recovered.size() - 1).number + 1;
+            recovered.add(Segment.create(segmentPath(number), number, segmentSize));
+        }
+        return Collections.unmodifiableList(recovered);
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("%016d%s", number, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentNumber(Path path) {
+        String fileName = path.getFileName().toString();
+        return Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * A single memory-mapped segment file. Only the active segment is written to,
+     * always under the journal's append lock; readers rely on the volatile limit to
+     * see fully written records.
+     * <p>
+     * The journal holds one reference to each of its segments and every reader
+     * holds another while it reads. The mapping is released when the count drops
+     * to zero, after which the segment can no longer be acquired.
+     * </p>
+     */
+    private static final class Segment {
+        private final Path path;
+        private final long number;
+        private final MappedByteBuffer buffer;
+        private final AtomicInteger references = new AtomicInteger(1);
+        private volatile boolean deleteOnRelease;
+        private volatile int limit;
+        private volatile long newestTimestamp;
+        private boolean sealed;
+
+        private Segment(Path path, long number, MappedByteBuffer buffer, int limit, long newestTimestamp,
+                boolean sealed) {
+            this.path = path;
+            this.number = number;
+            this.buffer = buffer;
+            this.limit = limit;
+            this.newestTimestamp = newestTimestamp;
+            this.sealed = sealed;
+        }
+
+        static Segment create(Path path, long number, int size) throws IOException {
+            MappedByteBuffer buffer = map(path, size);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(SEALED_LIMIT_OFFSET, 0);
+            buffer.putLong(8, number);
+            buffer.putLong(NEWEST_TIMESTAMP_OFFSET, 0);
+            return new Segment(path, number, buffer, HEADER_SIZE, 0, false);
+        }
+
+        static Segment open(Path path, long number, int size) throws IOException {
+            long fileSize = Files.size(path);
+            MappedByteBuffer buffer = map(path, (int) Math.max(fileSize, size));
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a journal segment: " + path);
+            }
+            int sealedLimit = buffer.getInt(SEALED_LIMIT_OFFSET);
+            if (sealedLimit > 0) {
+                return new Segment(path, number, buffer, sealedLimit, buffer.getLong(NEWEST_TIMESTAMP_OFFSET), true);
+            }
+            return recoverTail(path, number, buffer);
+        }
+
+        private static Segment recoverTail(Path path, long number, MappedByteBuffer buffer) {
+            int position = HEADER_SIZE;
+            long newestTimestamp = 0;
+            while (true) {
+                int length = readRecordLength(buffer, position);
+                if (length < 0) {
+                    break;
+                }
+                ByteBuffer payload = buffer.slice(position + 2 * Integer.BYTES, length);
+                newestTimestamp = payload.getLong(0) * 1000 + payload.getInt(Long.BYTES) / 1_000_000;
+                position += length + RECORD_OVERHEAD;
+            }
+            if (position + Integer.BYTES <= buffer.capacity() && buffer.getInt(position) != 0) {
+                logger.warn("Discarding partially written tail of journal segment {} at offset {}", path, position);
+                for (int i = position; i < buffer.capacity(); i++) {
+                    buffer.put(i, (byte) 0);
+                }
+            }
+            return new Segment(path, number, buffer, position, newestTimestamp, false);
+        }
+
+        /**
+         * Returns the payload length of an intact record at the given position, or
+         * {@code -1} if there is no complete, uncorrupted record there.
+         */
+        private static int readRecordLength(ByteBuffer buffer, int position) {
+            if (position + RECORD_OVERHEAD > buffer.capacity()) {
+                return -1;
+            }
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + RECORD_OVERHEAD + (long) length > buffer.capacity()
+                    || buffer.getInt(position + 2 * Integer.BYTES + length) != length) {
+                return -1;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(position + 2 * Integer.BYTES, length));
+            return (int) crc.getValue() == buffer.getInt(position + Integer.BYTES) ? length : -1;
+        }
+
+        /**
+         * Unmaps the buffer right away instead of waiting for it to be collected, so
+         * the file can be deleted on every platform. Falls back to the garbage
+         * collector where the JDK does not allow it.
+         */
+        private static void unmap(MappedByteBuffer buffer) {
+            try {
+                Field field = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                Object unsafe = field.get(null);
+                unsafe.getClass().getMethod("invokeCleaner", ByteBuffer.class).invoke(unsafe, buffer);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                logger.debug("Could not unmap journal segment, leaving it to the garbage collector", e);
+            }
+        }
+
+        private static MappedByteBuffer map(Path path, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+        }
+
+        /**
+         * Appends a record and returns its id.
+         */
+        long append(byte[] payload, int crc, long timestamp) {
+            int position = limit;
+            buffer.put(position + 2 * Integer.BYTES, payload);
+            buffer.putInt(position + 2 * Integer.BYTES + payload.length, payload.length);
+            buffer.putInt(position + Integer.BYTES, crc);
+            // The leading length is written last so a torn record is never mistaken for an intact one
+            buffer.putInt(position, payload.length);
+            newestTimestamp = timestamp;
+            limit = position + payload.length + RECORD_OVERHEAD;
+            return id(position);
+        }
+
+        void seal() {
+            buffer.putLong(NEWEST_TIMESTAMP_OFFSET, newestTimestamp);
+            buffer.putInt(SEALED_LIMIT_OFFSET, limit);
+            buffer.force();
+            sealed = true;
+        }
+
+        private long id(int recordStart) {
+            return number << 32 | recordStart;
+        }
+
+        /**
+         * Streams the records of this segment backwards from the write position. The
+         * id of a record combines the segment number with the record's offset.
+         */
+        Stream<CapturedExchange> recordsNewestFirst() {
+            int end = limit;
+            return Stream.iterate(end, position -> position > HEADER_SIZE,
+                    position -> position - buffer.getInt(position - Integer.BYTES) - RECORD_OVERHEAD)
+                    .map(position -> {
+                        int length = buffer.getInt(position - Integer.BYTES);
+                        int start = position - length - RECORD_OVERHEAD;
+                        int payloadStart = start + 2 * Integer.BYTES;
+                        return ExchangeRecordCodec.decodeSummary(id(start), buffer.slice(payloadStart, length),
+                                captured -> load(captured, payloadStart, length));
+                    });
+        }
+
+        /**
+         * Decodes a full record, pinning the segment while it is read.
+         */
+        private HttpExchange load(CapturedExchange captured, int payloadStart, int length) {
+            if (!acquire()) {
+                return ExchangeRecordCodec.summaryOnly(captured);
+            }
+            try {
+                return ExchangeRecordCodec.decode(buffer.slice(payloadStart, length).asReadOnlyBuffer());
+            } finally {
+                release();
+            }
+        }
+
+        /**
+         * Pins the segment for reading.
+         *
+         * @return {@code false} if the segment has already been released
+         */
+        boolean acquire() {
+            while (true) {
+                int count = references.get();
+                if (count == 0) {
+                    return false;
+                }
+                if (references.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void release() {
+            if (references.decrementAndGet() == 0) {
+                unmap(buffer);
+                if (deleteOnRelease) {
+                    try {
+                        Files.deleteIfExists(path);
+                    } catch (IOException e) {
+                        logger.warn("Failed to delete expired journal segment {}", path, e);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Releases the journal's reference and deletes the file once no reader
+         * holds the segment anymore.
+         */
+        void retire() {
+            deleteOnRelease = true;
+            release();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.vaadin.kitchensink.exchanges;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sliding-window latency histogram with log-linear buckets, in the spirit of
+ * HdrHistogram.
+ * <p>
+ * Values are recorded in microseconds. Each power of two is split into 16 linear
+ * sub-buckets, which bounds the relative error of a reported percentile to about
+ * 6%. The window is a ring of time slices, each a preallocated array of counters
+ * that is zeroed when the slice is reused, so recording never allocates.
+ * </p>
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 30; // about 18 minutes in microseconds
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final long sliceMillis;
+    private final Slice[] slices;
+
+    private static final class Slice {
+        private final AtomicLong epoch = new AtomicLong(-1);
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong max = new AtomicLong();
+    }
+
+    LatencyHistogram(long sliceMillis, int sliceCount) {
+        this.sliceMillis = sliceMillis;
+        this.slices = new Slice[sliceCount];
+        for (int i = 0; i < sliceCount; i++) {
+            slices[i] = new Slice();
+        }
+    }
+
+    void record(long nowMillis, long micros) {
+        long epoch = nowMillis / sliceMillis;
+        Slice slice = slices[(int) (epoch % slices.length)];
+        long sliceEpoch = slice.epoch.get();
+        if (sliceEpoch < epoch && slice.epoch.compareAndSet(sliceEpoch, epoch)) {
+            // This thread moved the slice into a new time period, forget the old counts.
+            // Values recorded concurrently while clearing may be lost, which is acceptable
+            // for a statistical view.
+            for (int i = 0; i < BUCKETS; i++) {
+                slice.counts.set(i, 0);
+            }
+            slice.max.set(0);
+        }
+        slice.counts.incrementAndGet(bucket(micros));
+        long max = slice.max.get();
+        while (micros > max && !slice.max.compareAndSet(max, micros)) {
+            max = slice.max.get();
+        }
+    }
+
+    /**
+     * Adds the counts of all slices within the window ending now to the given
+     * array and returns the largest value recorded in them.
+     */
+    long collect(long nowMillis, long windowMillis, long[] counts) {
+        long currentEpoch = nowMillis / sliceMillis;
+        long oldestEpoch = currentEpoch - Math.min(windowMillis / sliceMillis, slices.length) + 1;
+        long max = 0;
+        for (Slice slice : slices) {
+            long epoch = slice.epoch.get();
+            if (epoch >= oldestEpoch && epoch <= currentEpoch) {
+                for (int i = 0; i < BUCKETS; i++) {
+                    counts[i] += slice.counts.get(i);
+                }
+                max = Math.max(max, slice.max.get());
+            }
+        }
+        return max;
+    }
+
+    static int bucket(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) Math.max(micros, 0);
+        }
+        int exponent = Math.min(Long.SIZE - 1 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+        if (exponent == MAX_EXPONENT && micros >= 1L << (MAX_EXPONENT + 1)) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the highest value that falls into the given bucket.
+     */
+    static long highestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = bucket % SUB_BUCKETS;
+        long lowest = (1L << exponent) + ((long) subBucket << (exponent - SUB_BUCKET_BITS));
+        return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * Returns the value below which the given fraction of the counted values fall.
+     */
+    static long percentile(long[] counts, long total, double fraction) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return highestValue(i);
+            }
+        }
+        return highestValue(counts.length - 1);
+    }
+}
@@ -0,0 +1,22 @@
+package org.vaadin.kitchensink.exchanges;
+
+/**
+ * Kind of traffic a request belongs to, used to decide whether it is captured.
+ */
+public enum RequestClass {
+
+    /**
+     * Page loads, REST calls and anything else served by the application.
+     */
+    APPLICATION,
+
+    /**
+     * Vaadin UIDL, heartbeat and push requests.
+     */
+    FRAMEWORK_INTERNAL,
+
+    /**
+     * Static resources such as bundles, icons and images.
+     */
+    STATIC
+}
@@ -0,0 +1,55 @@
+package org.vaadin.kitchensink.exchanges;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Sorts requests into {@link RequestClass}es.
+ * <p>
+ * Framework-internal requests are recognized by a predicate supplied by the
+ * caller, typically Vaadin's {@code RequestUtil#isFrameworkInternalRequest}, so
+ * that capture agrees with how the security configuration treats them. Static
+ * resources are recognized by Ant-style path patterns.
+ * </p>
+ */
+public class RequestClassifier {
+
+    private final Predicate<HttpServletRequest> frameworkInternal;
+    private final List<String> staticPaths;
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    /**
+     * Creates a classifier.
+     *
+     * @param frameworkInternal
+     *            recognizes framework-internal requests
+     * @param staticPaths
+     *            Ant-style patterns of static resource paths, relative to the
+     *            context path
+     */
+    public RequestClassifier(Predicate<HttpServletRequest> frameworkInternal, List<String> staticPaths) {
+        this.frameworkInternal = frameworkInternal;
+        this.staticPaths = List.copyOf(staticPaths);
+    }
+
+    /**
+     * Returns the class of a request whose path relative to the context path is
+     * already known.
+     */
+    public RequestClass classify(HttpServletRequest request, String path) {
+        if (frameworkInternal.test(request)) {
+            return RequestClass.FRAMEWORK_INTERNAL;
+        }
+        for (String staticPath : staticPaths) {
+            if (pathMatcher.match(staticPath, path)) {
+                return RequestClass.STATIC;
+            }
+        }
+        return RequestClass.APPLICATION;
+    }
+}
@@ -0,0 +1,151 @@
+package org.vaadin.kitchensink.exchanges;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.springframework.boot.actuate.web.exchanges.HttpExchange;
+
+/**
+ * {@link HttpExchangeStore} backed by a fixed-size, lock-free ring buffer.
+ * <p>
+ * Writers claim a sequence number with a single atomic increment and publish the
+ * exchange into the slot for that sequence, so concurrent requests never contend on
+ * a lock. Readers take a snapshot by walking back from the current cursor and
+ * skipping slots that have not been published yet or have already been overwritten
+ * by a newer exchange, so they never block writers either.
+ * </p>
+ * <p>
+ * Only the fields shown in lists are kept as objects. Headers and the remaining
+ * details are encoded against a shared {@link HeaderDictionary} and decoded
+ * again when an exchange is opened.
+ * </p>
+ * <p>
+ * Each slot is also registered in an {@link ExchangeIndex}, which is updated in
+ * place when the slot is overwritten, so filtered queries touch only the slots
+ * that can match instead of scanning the whole ring.
+ * </p>
+ */
+public class RingBufferHttpExchangeRepository implements HttpExchangeStore {
+
+    private final int capacity;
+    private final AtomicReferenceArray<CapturedExchange> slots;
+    private final AtomicLong cursor = new AtomicLong();
+    private final ExchangeIndex exchangeIndex;
+    private final HeaderDictionary headerDictionary = new HeaderDictionary();
+    private final List<Consumer<CapturedExchange>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a repository retaining the given number of most recent exchanges.
+     *
+     * @param capacity
+     *            the maximum number of exchanges to keep, must be positive
+     */
+    public RingBufferHttpExchangeRepository(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.exchangeIndex = new ExchangeIndex(capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public void add(HttpExchange httpExchange) {
+        long sequence = cursor.getAndIncrement();
+        CapturedExchange captured = ExchangeRecordCodec.compact(sequence, httpExchange, headerDictionary);
+        int index = index(sequence);
+        CapturedExchange current = slots.get(index);
+        // A writer that was descheduled for a full lap must not overwrite a newer exchange
+        while (current == null || current.getId() < sequence) {
+            if (slots.compareAndSet(index, current, captured)) {
+                if (current != null) {
+                    exchangeIndex.remove(index, current);
+                }
+                exchangeIndex.add(index, captured);
+                // A writer a lap behind may have cleared bits the winner of this slot depends on
+                CapturedExchange winner = slots.get(index);
+                if (winner != captured) {
+                    exchangeIndex.add(index, winner);
+                }
+                listeners.forEach(listener -> listener.accept(captured));
+                return;
+            }
+            current = slots.get(index);
+        }
+    }
+
+    @Override
+    public void addListener(Consumer<CapturedExchange> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Returns a snapshot of the retained exchanges, most recent first.
+     */
+    @Override
+    public List<HttpExchange> findAll() {
+        return snapshot().map(CapturedExchange::getExchange).toList();
+    }
+
+    /**
+     * Returns the requested page. Filters on status class, duration or path prefix
+     * are resolved through the secondary indexes, so only slots that can match are
+     * read.
+     */
+    @Override
+    public List<CapturedExchange> find(ExchangeQuery query) {
+        long[] candidates = exchangeIndex.candidates(query.filter());
+        if (candidates == null) {
+            return ExchangeQueries.execute(snapshot(), query);
+        }
+        List<CapturedExchange> matching = new ArrayList<>();
+        for (int word = 0; word < candidates.length; word++) {
+            long bits = candidates[word];
+            while (bits != 0) {
+                CapturedExchange captured = slots.get(word * Long.SIZE + Long.numberOfTrailingZeros(bits));
+                if (captured != null) {
+                    matching.add(captured);
+                }
+                bits &= bits - 1;
+            }
+        }
+        matching.sort(Comparator.comparingLong(CapturedExchange::getId).reversed());
+        return ExchangeQueries.execute(matching.stream(), query);
+    }
+
+    @Override
+    public Stream<CapturedExchange> stream(ExchangeFilter filter) {
+        return snapshot().filter(filter::matches);
+    }
+
+    /**
+     * Streams the retained exchanges, most recent first, skipping slots that have
+     * not been published yet or were overwritten while reading.
+     */
+    private Stream<CapturedExchange> snapshot() {
+        long end = cursor.get();
+        long start = Math.max(0, end - capacity);
+        return LongStream.iterate(end - 1, sequence -> sequence >= start, sequence -> sequence - 1)
+                .mapToObj(sequence -> {
+                    CapturedExchange captured = slots.get(index(sequence));
+                    return captured != null && captured.getId() == sequence ? captured : null;
+                })
+                .filter(Objects::nonNull);
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % capacity);
+    }
+}
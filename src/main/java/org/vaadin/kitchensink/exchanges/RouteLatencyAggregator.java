@@ -0,0 +1,216 @@
+package org.vaadin.kitchensink.exchanges;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Streaming latency percentiles per route, computed from every finished request
+ * rather than only the sampled ones.
+ * <p>
+ * Request paths are normalized to the route template serving them and each
+ * template has its own {@link LatencyHistogram}, created when the templates are
+ * set. Paths matching no template are counted under a fallback key derived from
+ * their first segment. Resolved paths are cached, so in the steady state
+ * recording is a map lookup and a few atomic increments and does not allocate.
+ * </p>
+ * <p>
+ * Fallback keys and the paths resolving to them have their own bounds, apart
+ * from the templates and their paths, so unrouted traffic such as a scanner
+ * probing {@code /wp-admin} or {@code /.env} cannot take the place of a route.
+ * Requests beyond the fallback key limit are counted under
+ * {@value #OTHER_ROUTE}. Once a path cache is full, uncached paths are still
+ * matched against the templates, which does not allocate, but those matching
+ * none are counted under {@value #OTHER_ROUTE} rather than deriving a fallback
+ * key for every request.
+ * </p>
+ */
+public class RouteLatencyAggregator {
+
+    /**
+     * Route collecting the requests of unrouted paths beyond the fallback limit.
+     */
+    public static final String OTHER_ROUTE = "(other)";
+
+    private static final int MAX_FALLBACK_ROUTES = 64;
+    private static final int MAX_CACHED_PATHS = 4096;
+    private static final int MAX_CACHED_FALLBACK_PATHS = 1024;
+
+    private final long sliceMillis;
+    private final int slices;
+    private final RouteTemplateResolver resolver = new RouteTemplateResolver();
+    // Replaced as a whole when the templates change, so it is never looked up half-filled
+    private volatile Map<String, LatencyHistogram> templateRoutes = Map.of();
+    private final ConcurrentMap<String, LatencyHistogram> fallbackRoutes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> paths = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> fallbackPaths = new ConcurrentHashMap<>();
+    private final LatencyHistogram other;
+
+    /**
+     * Creates an aggregator.
+     *
+     * @param sliceDuration
+     *            the length of one time slice of the sliding window
+     * @param slices
+     *            the number of slices kept, which together form the longest window
+     */
+    public RouteLatencyAggregator(Duration sliceDuration, int slices) {
+        if (sliceDuration.toMillis() <= 0 || slices <= 0) {
+            throw new IllegalArgumentException("Latency window must not be empty");
+        }
+        this.sliceMillis = sliceDuration.toMillis();
+        this.slices = slices;
+        this.other = new LatencyHistogram(sliceMillis, slices);
+    }
+
+    /**
+     * Replaces the route templates request paths are normalized to, using the
+     * Vaadin template syntax without a leading slash.
+     */
+    public synchronized void setRouteTemplates(Collection<String> templates) {
+        Map<String, LatencyHistogram> previous = templateRoutes;
+        Map<String, LatencyHistogram> routes = new HashMap<>();
+        for (String template : templates) {
+            // Routes that are still there keep their history
+            routes.computeIfAbsent(RouteTemplateResolver.display(template), key -> {
+                LatencyHistogram kept = previous.get(key);
+                return kept != null ? kept : new LatencyHistogram(sliceMillis, slices);
+            });
+        }
+        // Histograms exist before the resolver can match their templates
+        templateRoutes = Map.copyOf(routes);
+        resolver.setTemplates(templates);
+        // Paths resolved against the old templates may now belong to another route
+        paths.clear();
+        fallbackPaths.clear();
+    }
+
+    /**
+     * Records a finished request.
+     *
+     * @param path
+     *            the request path, relative to the context path
+     * @param nowMillis
+     *            the wall-clock time the request finished at
+     * @param elapsedNanos
+     *            how long the request took
+     */
+    public void record(String path, long nowMillis, long elapsedNanos) {
+        LatencyHistogram histogram = paths.get(path);
+        if (histogram == null) {
+            histogram = fallbackPaths.get(path);
+        }
+        if (histogram == null) {
+            histogram = resolve(path);
+        }
+        histogram.record(nowMillis, elapsedNanos / 1_000);
+    }
+
+    private LatencyHistogram resolve(String path) {
+        String route = resolver.match(path);
+        if (route != null) {
+            // Only missing for a template that was just removed
+            LatencyHistogram histogram = templateRoutes.getOrDefault(route, other);
+            if (paths.size() < MAX_CACHED_PATHS) {
+                paths.put(path, histogram);
+            }
+            return histogram;
+        }
+        if (fallbackPaths.size() >= MAX_CACHED_FALLBACK_PATHS) {
+            return other;
+        }
+        route = RouteTemplateResolver.fallback(path);
+        LatencyHistogram histogram = fallbackRoutes.get(route);
+        if (histogram == null) {
+            histogram = fallbackRoutes.size() < MAX_FALLBACK_ROUTES
+                    ? fallbackRoutes.computeIfAbsent(route, key -> new LatencyHistogram(sliceMillis, slices))
+                    : other;
+        }
+        fallbackPaths.put(path, histogram);
+        return histogram;
+    }
+
+    /**
+     * Returns the longest window percentiles can be computed over.
+     */
+    public Duration getMaxWindow() {
+        return Duration.ofMillis(sliceMillis * slices);
+    }
+
+    /**
+     * Returns the latency percentiles of every route that received requests
+     * within the given window, slowest p99 first.
+     *
+     * @param window
+     *            how far back to look, rounded down to whole slices and capped at
+     *            {@link #getMaxWindow()}
+     * @return the percentiles per route
+     */
+    public List<RouteLatency> snapshot(Duration window) {
+        long now = System.currentTimeMillis();
+        long windowMillis = Math.max(window.toMillis(), sliceMillis);
+        List<RouteLatency> result = new ArrayList<>();
+        long[] counts = new long[LatencyHistogram.BUCKETS];
+        templateRoutes.forEach((route, histogram) -> addSnapshot(route, histogram, now, windowMillis, counts, result));
+        fallbackRoutes.forEach((route, histogram) -> addSnapshot(route, histogram, now, windowMillis, counts, result));
+        addSnapshot(OTHER_ROUTE, other, now, windowMillis, counts, result);
+        result.sort(Comparator.comparingDouble(RouteLatency::p99Millis).reversed()
+                .thenComparing(RouteLatency::route));
+        return result;
+    }
+
+    private static void addSnapshot(String route, LatencyHistogram histogram, long now, long windowMillis,
+            long[] counts, List<RouteLatency> result) {
+        Arrays.fill(counts, 0);
+        long maxMicros = histogram.collect(now, windowMillis, counts);
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return;
+        }
+        result.add(new RouteLatency(route, total,
+                percentileMillis(counts, total, 0.5, maxMicros),
+                percentileMillis(counts, total, 0.9, maxMicros),
+                percentileMillis(counts, total, 0.99, maxMicros),
+                percentileMillis(counts, total, 0.999, maxMicros),
+                maxMicros / 1_000.0));
+    }
+
+    private static double percentileMillis(long[] counts, long total, double fraction, long maxMicros) {
+        // The bucket's upper bound may lie above the largest value actually recorded
+        return Math.min(LatencyHistogram.percentile(counts, total, fraction), maxMicros) / 1_000.0;
+    }
+
+    /**
+     * Latency percentiles of a single route over a window. Percentiles are the
+     * upper bound of the histogram bucket they fall into, capped at the maximum,
+     * which is exact.
+     *
+     * @param route
+     *            the route template, or a fallback key for unrouted paths
+     * @param count
+     *            the number of requests in the window
+     * @param p50Millis
+     *            the median in milliseconds
+     * @param p90Millis
+     *            the 90th percentile in milliseconds
+     * @param p99Millis
+     *            the 99th percentile in milliseconds
+     * @param p999Millis
+     *            the 99.9th percentile in milliseconds
+     * @param maxMillis
+     *            the slowest request in milliseconds
+     */
+    public record RouteLatency(String route, long count, double p50Millis, double p90Millis, double p99Millis,
+            double p999Millis, double maxMillis) {
+    }
+}
@@ -0,0 +1,137 @@
+package org.vaadin.kitchensink.exchanges;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Maps request paths to the route template that serves them, so that requests for
+ * {@code /orders/17} and {@code /orders/42} are counted under {@code /orders/:id}.
+ * <p>
+ * Templates use Vaadin's syntax where a segment starting with {@code :} is a
+ * parameter, optionally suffixed with {@code ?} when it may be omitted or
+ * {@code *} when it matches the rest of the path. Parameter constraints in
+ * parentheses are not evaluated. Matching walks the path in place and does not
+ * allocate. Paths matching no template are reported by their first segment, for
+ * example {@code /VAADIN/**}.
+ * </p>
+ */
+final class RouteTemplateResolver {
+
+    private static final byte LITERAL = 0;
+    private static final byte PARAMETER = 1;
+    private static final byte OPTIONAL = 2;
+    private static final byte WILDCARD = 3;
+
+    private volatile List<Template> templates = List.of();
+
+    void setTemplates(Collection<String> routeTemplates) {
+        List<Template> parsed = new ArrayList<>(routeTemplates.size());
+        for (String template : routeTemplates) {
+            parsed.add(new Template(template));
+        }
+        // Try the most specific templates first so literals win over parameters
+        parsed.sort(Comparator.comparingInt(Template::literals).reversed()
+                .thenComparing(Template::hasWildcard)
+                .thenComparing(Comparator.comparingInt((Template t) -> t.segments.length).reversed()));
+        templates = List.copyOf(parsed);
+    }
+
+    /**
+     * Returns a template as {@link #match(String)} reports it.
+     */
+    static String display(String template) {
+        return template.isEmpty() ? "/" : "/" + template;
+    }
+
+    /**
+     * Returns the template matching the given path, or {@code null} if there is none.
+     */
+    String match(String path) {
+        for (Template template : templates) {
+            if (template.matches(path, 0, 1)) {
+                return template.display;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the fallback key for a path that matched no template.
+     */
+    static String fallback(String path) {
+        int end = path.indexOf('/', 1);
+        return end < 0 ? path : path.substring(0, end) + "/**";
+    }
+
+    private static final class Template {
+        private final String display;
+        private final String[] segments;
+        private final byte[] kinds;
+
+        Template(String template) {
+            display = display(template);
+            segments = template.isEmpty() ? new String[0] : template.split("/");
+            kinds = new byte[segments.length];
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (!segment.startsWith(":")) {
+                    kinds[i] = LITERAL;
+                } else if (segment.endsWith("*")) {
+                    kinds[i] = WILDCARD;
+                } else if (segment.endsWith("?")) {
+                    kinds[i] = OPTIONAL;
+                } else {
+                    kinds[i] = PARAMETER;
+                }
+            }
+        }
+
+        int literals() {
+            int literals = 0;
+            for (byte kind : kinds) {
+                if (kind == LITERAL) {
+                    literals++;
+                }
+            }
+            return literals;
+        }
+
+        boolean hasWildcard() {
+            return kinds.length > 0 && kinds[kinds.length - 1] == WILDCARD;
+        }
+
+        /**
+         * Matches the template from the given segment against the path from the
+         * given character offset, which is just past a slash.
+         */
+        boolean matches(String path, int segment, int start) {
+            if (segment == segments.length) {
+                return start >= path.length();
+            }
+            byte kind = kinds[segment];
+            if (kind == WILDCARD) {
+                return true;
+            }
+            if (start >= path.length()) {
+                return kind == OPTIONAL && matches(path, segment + 1, start);
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            boolean matched;
+            if (kind == LITERAL) {
+                String literal = segments[segment];
+                matched = end - start == literal.length() && path.regionMatches(start, literal, 0, literal.length());
+            } else {
+                matched = end > start;
+            }
+            if (matched && matches(path, segment + 1, end + 1)) {
+                return true;
+            }
+            return kind == OPTIONAL && matches(path, segment + 1, start);
+        }
+    }
+}
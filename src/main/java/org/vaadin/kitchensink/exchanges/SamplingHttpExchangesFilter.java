@@ -0,0 +1,179 @@
+package org.vaadin.kitchensink.exchanges;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.actuate.web.exchanges.HttpExchange;
+import org.springframework.boot.actuate.web.exchanges.HttpExchangeRepository;
+import org.springframework.boot.actuate.web.exchanges.Include;
+import org.springframework.boot.actuate.web.exchanges.RecordableHttpRequest;
+import org.springframework.boot.actuate.web.exchanges.RecordableHttpResponse;
+import org.springframework.boot.actuate.web.exchanges.servlet.HttpExchangesFilter;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.UriUtils;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * Replacement for Spring Boot's {@link HttpExchangesFilter} that only builds an
+ * {@link HttpExchange} for requests selected by an {@link HttpExchangeSampler}.
+ * <p>
+ * The request is timed with two primitive reads of the clock. Headers, principal
+ * and session are only copied once the sampler has decided to keep the request, in
+ * which case the exchange is built after the fact with the recorded start time and
+ * duration. Requests are classified first, so that framework-internal and static
+ * traffic can be left out of the history. The timing of every request, sampled
+ * or not, is passed to a {@link RouteLatencyAggregator}.
+ * </p>
+ */
+public class SamplingHttpExchangesFilter extends HttpExchangesFilter {
+
+    private final HttpExchangeRepository repository;
+    private final Set<Include> includes;
+    private final HttpExchangeSampler sampler;
+    private final RouteLatencyAggregator latencyAggregator;
+    private final RequestClassifier classifier;
+
+    public SamplingHttpExchangesFilter(HttpExchangeRepository repository, Set<Include> includes,
+            HttpExchangeSampler sampler, RouteLatencyAggregator latencyAggregator, RequestClassifier classifier) {
+        super(repository, includes);
+        this.repository = repository;
+        this.includes = includes;
+        this.sampler = sampler;
+        this.latencyAggregator = latencyAggregator;
+        this.classifier = classifier;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!isRequestValid(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long startMillis = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        int status = HttpStatus.INTERNAL_SERVER_ERROR.value();
+        try {
+            filterChain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            String path = getPath(request);
+            latencyAggregator.record(path, startMillis + elapsedNanos / 1_000_000, elapsedNanos);
+            if (sampler.shouldRecord(classifier.classify(request, path), status, elapsedNanos)) {
+                repository.add(buildExchange(request, response, status, startMillis, elapsedNanos));
+            }
+        }
+    }
+
+    private HttpExchange buildExchange(HttpServletRequest request, HttpServletResponse response, int status,
+            long startMillis, long elapsedNanos) {
+        Instant start = Instant.ofEpochMilli(startMillis);
+        HttpExchange.Started started = HttpExchange.start(Clock.fixed(start, ZoneOffset.UTC),
+                new ServletRecordableRequest(request));
+        return started.finish(Clock.fixed(start.plusNanos(elapsedNanos), ZoneOffset.UTC),
+                new ServletRecordableResponse(response, status), request::getUserPrincipal,
+                () -> getSessionId(request), includes);
+    }
+
+    private static boolean isRequestValid(HttpServletRequest request) {
+        try {
+            new URI(request.getRequestURL().toString());
+            return true;
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+
+    private static String getPath(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String contextPath = request.getContextPath();
+        return contextPath.isEmpty() ? uri : uri.substring(contextPath.length());
+    }
+
+    private static String getSessionId(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        return session != null ? session.getId() : null;
+    }
+
+    private static final class ServletRecordableRequest implements RecordableHttpRequest {
+        private final HttpServletRequest request;
+
+        ServletRecordableRequest(HttpServletRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public URI getUri() {
+            String queryString = request.getQueryString();
+            if (!StringUtils.hasText(queryString)) {
+                return URI.create(request.getRequestURL().toString());
+            }
+            try {
+                return new URI(request.getRequestURL().append('?').append(queryString).toString());
+            } catch (URISyntaxException e) {
+                String encoded = UriUtils.encodeQuery(queryString, StandardCharsets.UTF_8);
+                return URI.create(request.getRequestURL().append('?').append(encoded).toString());
+            }
+        }
+
+        @Override
+        public String getRemoteAddress() {
+            return request.getRemoteAddr();
+        }
+
+        @Override
+        public String getMethod() {
+            return request.getMethod();
+        }
+
+        @Override
+        public Map<String, List<String>> getHeaders() {
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            Collections.list(request.getHeaderNames())
+                    .forEach(name -> headers.put(name, Collections.list(request.getHeaders(name))));
+            return headers;
+        }
+    }
+
+    private static final class ServletRecordableResponse implements RecordableHttpResponse {
+        private final HttpServletResponse response;
+        private final int status;
+
+        ServletRecordableResponse(HttpServletResponse response, int status) {
+            this.response = response;
+            this.status = status;
+        }
+
+        @Override
+        public int getStatus() {
+            return status;
+        }
+
+        @Override
+        public Map<String, List<String>> getHeaders() {
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (String name : response.getHeaderNames()) {
+                headers.put(name, new ArrayList<>(response.getHeaders(name)));
+            }
+            return headers;
+        }
+    }
+}
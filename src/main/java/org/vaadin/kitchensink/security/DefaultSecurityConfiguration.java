@@ -43,6 +43,8 @@ public class DefaultSecurityConfiguration {
 
     private void requestWhitelist(
             AuthorizeHttpRequestsConfigurer<HttpSecurity>.AuthorizationManagerRequestMatcherRegistry urlRegistry) {
+        // Captured exchanges contain other users' requests
+        urlRegistry.requestMatchers("/actuator/httpexchanges/**").hasRole(AppRoles.ADMIN);
         urlRegistry.requestMatchers("/actuator/**").permitAll();
         // Allow access to static resources (icons, images, etc.)
         urlRegistry.requestMatchers("/VAADIN/**").permitAll();
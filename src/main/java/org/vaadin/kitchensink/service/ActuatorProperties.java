@@ -0,0 +1,175 @@
+package org.vaadin.kitchensink.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for reading actuator endpoints over HTTP, bound from
+ * the {@code kitchen-sink.actuator} prefix.
+ */
+@ConfigurationProperties(prefix = "kitchen-sink.actuator")
+public class ActuatorProperties {
+
+    /**
+     * How long to wait for a connection to be established.
+     */
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * How long to wait for a response once the request has been sent.
+     */
+    private Duration readTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Whether responses are handled on virtual threads. Requires Java 21 or later,
+     * on older runtimes the client fails to start when enabled.
+     */
+    private boolean virtualThreads = false;
+
+    /**
+     * Number of threads invoking this application's own endpoints in-process when
+     * virtual threads are disabled. Invocations beyond a bounded queue fail fast.
+     */
+    private int localThreads = 4;
+
+    private final Cache cache = new Cache();
+
+    private final Cluster cluster = new Cluster();
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(Duration readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public int getLocalThreads() {
+        return localThreads;
+    }
+
+    public void setLocalThreads(int localThreads) {
+        this.localThreads = localThreads;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    /**
+     * Caching of parsed actuator responses.
+     */
+    public static class Cache {
+
+        /**
+         * Maximum number of cached responses, 0 disables caching.
+         */
+        private int maxEntries = 256;
+
+        /**
+         * How long a response stays fresh, unless configured for its endpoint.
+         */
+        private Duration defaultTtl = Duration.ofSeconds(10);
+
+        /**
+         * Time to live per endpoint id, for example {@code health} or {@code env}.
+         * A zero duration disables caching for the endpoint.
+         */
+        private Map<String, Duration> ttl = new LinkedHashMap<>();
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getDefaultTtl() {
+            return defaultTtl;
+        }
+
+        public void setDefaultTtl(Duration defaultTtl) {
+            this.defaultTtl = defaultTtl;
+        }
+
+        public Map<String, Duration> getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Map<String, Duration> ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    public Cluster getCluster() {
+        return cluster;
+    }
+
+    /**
+     * Other instances of the application queried by the cluster view.
+     */
+    public static class Cluster {
+
+        /**
+         * Actuator base URLs of the other instances, for example
+         * {@code http://localhost:8081/actuator}.
+         */
+        private List<String> peers = new ArrayList<>();
+
+        /**
+         * Maximum number of instances queried at the same time.
+         */
+        private int maxConcurrency = 4;
+
+        /**
+         * How long to wait for a single instance before reporting it as failed.
+         */
+        private Duration timeout = Duration.ofSeconds(3);
+
+        public List<String> getPeers() {
+            return peers;
+        }
+
+        public void setPeers(List<String> peers) {
+            this.peers = peers;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package org.vaadin.kitchensink.service;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.databind.JavaType;
+
+/**
+ * Size-bounded cache of parsed actuator responses, keyed by URL and target
+ * type, evicting the least recently used entry.
+ * <p>
+ * Entries expire after the time to live of their endpoint. Expired entries are
+ * kept so that their validators can be sent with the next request and a
+ * {@code 304 Not Modified} answer can reuse the parsed value.
+ * </p>
+ */
+final class ActuatorResponseCache {
+
+    private final int maxEntries;
+    private final Duration defaultTtl;
+    private final Map<String, Duration> ttls;
+    private final LinkedHashMap<Key, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    ActuatorResponseCache(int maxEntries, Duration defaultTtl, Map<String, Duration> ttls) {
+        this.maxEntries = maxEntries;
+        this.defaultTtl = defaultTtl;
+        this.ttls = Map.copyOf(ttls);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > ActuatorResponseCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the entry for a key, fresh or expired, or {@code null}.
+     */
+    synchronized Entry get(Key key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Stores a freshly loaded value, unless its endpoint is not cached.
+     */
+    void put(Key key, Object value, String etag, String lastModified) {
+        long ttlNanos = ttl(key.url()).toNanos();
+        if (ttlNanos <= 0 || maxEntries <= 0) {
+            return;
+        }
+        Entry entry = new Entry(value, etag, lastModified, System.nanoTime() + ttlNanos);
+        synchronized (this) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Extends an entry the server confirmed to be unchanged.
+     */
+    void revalidated(Key key, Entry entry) {
+        revalidations.increment();
+        entry.expiresAtNanos = System.nanoTime() + ttl(key.url()).toNanos();
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    void hit() {
+        hits.increment();
+    }
+
+    void coalesced() {
+        coalesced.increment();
+    }
+
+    void miss() {
+        misses.increment();
+    }
+
+    void loaded(long elapsedNanos) {
+        loads.increment();
+        loadNanos.add(elapsedNanos);
+    }
+
+    ActuatorService.CacheStatistics statistics() {
+        long loadCount = loads.sum();
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return new ActuatorService.CacheStatistics(hits.sum(), coalesced.sum(), misses.sum(),
+                revalidations.sum(), evictions.sum(), size, loadCount == 0 ? 0 : loadNanos.sum() / 1e6 / loadCount);
+    }
+
+    List<ActuatorService.CacheEntry> entries() {
+        long now = System.nanoTime();
+        List<ActuatorService.CacheEntry> result = new ArrayList<>();
+        synchronized (this) {
+            entries.forEach((key, entry) -> result.add(new ActuatorService.CacheEntry(key.url(),
+                    key.type().toString(), Duration.ofNanos(entry.expiresAtNanos - now),
+                    entry.etag != null || entry.lastModified != null)));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the time to live of a URL's endpoint, the first path segment after
+     * {@code /actuator/}.
+     */
+    Duration ttl(String url) {
+        String path = URI.create(url).getPath();
+        int start = path != null ? path.indexOf("/actuator/") : -1;
+        if (start < 0) {
+            return defaultTtl;
+        }
+        start += "/actuator/".length();
+        int end = path.indexOf('/', start);
+        String endpoint = end < 0 ? path.substring(start) : path.substring(start, end);
+        return ttls.getOrDefault(endpoint, defaultTtl);
+    }
+
+    record Key(String url, JavaType type) {
+    }
+
+    static final class Entry {
+
+        final Object value;
+        final String etag;
+        final String lastModified;
+        volatile long expiresAtNanos;
+
+        Entry(Object value, String etag, String lastModified, long expiresAtNanos) {
+            this.value = value;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean isFresh() {
+            return System.nanoTime() - expiresAtNanos < 0;
+        }
+    }
+}
@@ -1,35 +1,566 @@
 package org.vaadin.kitchensink.service;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
-import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.filter.JsonPointerBasedFilter;
+import com.fasterxml.jackson.core.filter.TokenFilter;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 
+/**
+ * Reads actuator endpoints over HTTP.
+ * <p>
+ * All requests share one {@link HttpClient}, which keeps connections alive,
+ * negotiates HTTP/2 where the server supports it and applies the timeouts from
+ * {@link ActuatorProperties}. The asynchronous methods return immediately; the
+ * blocking ones wait for the same futures.
+ * </p>
+ * <p>
+ * Parsed responses are cached per URL and target type for the time to live of
+ * their endpoint and shared between callers, who must not modify them. Expired
+ * responses are revalidated with {@code If-None-Match} or
+ * {@code If-Modified-Since} when the endpoint sent a validator, and concurrent
+ * requests for the same key share a single load.
+ * </p>
+ * <p>
+ * For large endpoints such as {@code beans}, {@code mappings} or {@code env},
+ * the projecting methods parse the response as a stream and only bind the
+ * requested parts. Their results are not cached.
+ * </p>
+ * <p>
+ * URLs addressing this application's own actuator endpoints are not sent over
+ * loopback HTTP. The typed methods invoke the endpoint operation in-process
+ * through {@link LocalActuatorEndpoints} and convert its result without
+ * serializing it to JSON text, and cache the result for the endpoint's time to
+ * live like an HTTP response. Those invocations run on the client's virtual
+ * threads when enabled, and otherwise on a small dedicated pool, so slow
+ * endpoints never occupy the common fork-join pool.
+ * </p>
+ * <p>
+ * The cluster methods query the same endpoint on this instance and every
+ * configured peer in parallel, with bounded concurrency and a deadline per node.
+ * </p>
+ */
 @Service
-public class ActuatorService {
+public class ActuatorService implements AutoCloseable {
 
     private final ObjectMapper mapper;
+    private final HttpClient client;
+    private final ActuatorProperties properties;
+    private final ActuatorResponseCache cache;
+    private final LocalActuatorEndpoints localEndpoints;
+    private final Executor localExecutor;
+    private final ThreadPoolExecutor localPool;
+    private final ConcurrentMap<ActuatorResponseCache.Key, CompletableFuture<Object>> inFlight =
+            new ConcurrentHashMap<>();
 
-    public ActuatorService(ObjectMapper mapper) {
+    public ActuatorService(ObjectMapper mapper, ActuatorProperties properties,
+            LocalActuatorEndpoints localEndpoints) {
         this.mapper = mapper;
+        this.properties = properties;
+        this.localEndpoints = localEndpoints;
+        ActuatorProperties.Cache cacheProperties = properties.getCache();
+        this.cache = new ActuatorResponseCache(cacheProperties.getMaxEntries(), cacheProperties.getDefaultTtl(),
+                cacheProperties.getTtl());
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .connectTimeout(properties.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL);
+        if (properties.isVirtualThreads()) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("actuator-client-");
+            executor.setVirtualThreads(true);
+            builder.executor(executor);
+        }
+        this.client = builder.build();
+        if (client.executor().isPresent()) {
+            this.localPool = null;
+            this.localExecutor = client.executor().get();
+        } else {
+            this.localPool = createLocalPool(properties.getLocalThreads());
+            this.localExecutor = localPool;
+        }
+    }
+
+    private static ThreadPoolExecutor createLocalPool(int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 16), runnable -> {
+                    Thread thread = new Thread(runnable, "actuator-local-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
     }
 
     public <T> T getActuatorData(String url, Class<T> valueType) {
+        return join(getActuatorDataAsync(url, valueType));
+    }
+
+    public <T> T getActuatorData(String url, TypeReference<T> valueTypeRef) {
+        return join(getActuatorDataAsync(url, valueTypeRef));
+    }
+
+    public <T> CompletableFuture<T> getActuatorDataAsync(String url, Class<T> valueType) {
+        return fetch(url, mapper.constructType(valueType));
+    }
+
+    public <T> CompletableFuture<T> getActuatorDataAsync(String url, TypeReference<T> valueTypeRef) {
+        return fetch(url, mapper.constructType(valueTypeRef));
+    }
+
+    /**
+     * Reads several endpoints concurrently.
+     *
+     * @return the responses by URL in the given order, or a future completed with
+     *         the first failure
+     */
+    public <T> CompletableFuture<Map<String, T>> getActuatorData(Collection<String> urls,
+            TypeReference<T> valueTypeRef) {
+        JavaType type = mapper.constructType(valueTypeRef);
+        List<String> urlList = List.copyOf(urls);
+        List<CompletableFuture<T>> futures = urlList.stream().map(url -> this.<T> fetch(url, type)).toList();
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            Map<String, T> results = new LinkedHashMap<>();
+            for (int i = 0; i < urlList.size(); i++) {
+                results.put(urlList.get(i), futures.get(i).join());
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Reads the value at a JSON pointer, for example {@code /git/commit/id},
+     * without building the rest of the response.
+     *
+     * @return the value, or {@code null} if the pointer matches nothing
+     */
+    public <T> CompletableFuture<T> getActuatorDataAsync(String url, String jsonPointer,
+            TypeReference<T> valueTypeRef) {
+        TokenFilter filter = new JsonPointerBasedFilter(JsonPointer.compile(jsonPointer));
+        ObjectReader reader = mapper.readerFor(valueTypeRef);
+        return stream(url, in -> {
+            try (JsonParser parser = filter(in, filter, TokenFilter.Inclusion.ONLY_INCLUDE_ALL, false)) {
+                return parser.nextToken() != null ? reader.<T> readValue(parser) : null;
+            }
+        });
+    }
+
+    /**
+     * Reads only the values at the given JSON pointers, keeping the structure
+     * around them.
+     *
+     * @return a tree with the matched values, or a missing node if none matched
+     */
+    public CompletableFuture<JsonNode> getActuatorFieldsAsync(String url, Collection<String> jsonPointers) {
+        TokenFilter filter = JsonPointerProjection.of(jsonPointers);
+        return stream(url, in -> {
+            if (filter == null) {
+                return mapper.missingNode();
+            }
+            try (JsonParser parser = filter(in, filter, TokenFilter.Inclusion.INCLUDE_ALL_AND_PATH, true)) {
+                if (parser.nextToken() == null) {
+                    return mapper.missingNode();
+                }
+                JsonNode tree = mapper.readTree(parser);
+                return tree;
+            }
+        });
+    }
+
+    /**
+     * Streams the elements of the array at a JSON pointer to a consumer, binding
+     * one element at a time.
+     *
+     * @return the number of elements delivered
+     */
+    public <T> CompletableFuture<Long> streamActuatorArrayAsync(String url, String arrayPointer,
+            Class<T> elementType, Consumer<? super T> consumer) {
+        TokenFilter filter = new JsonPointerBasedFilter(JsonPointer.compile(arrayPointer));
+        ObjectReader reader = mapper.readerFor(elementType);
+        return stream(url, in -> {
+            long count = 0;
+            try (JsonParser parser = filter(in, filter, TokenFilter.Inclusion.ONLY_INCLUDE_ALL, false)) {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    return count;
+                }
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    consumer.accept(reader.<T> readValue(parser));
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    /**
+     * Returns the actuator base URLs of this instance, if known, followed by the
+     * configured peers.
+     */
+    public List<String> getClusterNodes() {
+        List<String> nodes = new ArrayList<>();
+        String self = localEndpoints.getBaseUrl();
+        if (self != null) {
+            nodes.add(self);
+        }
+        for (String peer : properties.getCluster().getPeers()) {
+            String node = peer.endsWith("/") ? peer.substring(0, peer.length() - 1) : peer;
+            if (!nodes.contains(node)) {
+                nodes.add(node);
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Reads an endpoint from every cluster node. A node that fails or misses its
+     * deadline is reported with an error instead of failing the whole call.
+     *
+     * @param path
+     *            the endpoint path relative to the actuator base URL, for example
+     *            {@code /health}
+     * @return one result per node, in the order of {@link #getClusterNodes()}
+     */
+    public <T> CompletableFuture<List<NodeResult<T>>> getClusterData(String path, TypeReference<T> valueTypeRef) {
+        ClusterQuery<T> query = new ClusterQuery<>(getClusterNodes(), path, mapper.constructType(valueTypeRef));
+        return query.start(Math.max(1, properties.getCluster().getMaxConcurrency()));
+    }
+
+    /**
+     * Returns the hit, miss and load statistics of the response cache.
+     */
+    public CacheStatistics getCacheStatistics() {
+        return cache.statistics();
+    }
+
+    /**
+     * Returns the cached responses, least recently used first.
+     */
+    public List<CacheEntry> getCacheEntries() {
+        return cache.entries();
+    }
+
+    public void clearCache() {
+        cache.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> fetch(String url, JavaType type) {
+        ActuatorResponseCache.Key key = new ActuatorResponseCache.Key(url, type);
+        ActuatorResponseCache.Entry cached = cache.get(key);
+        if (cached != null && cached.isFresh()) {
+            cache.hit();
+            return CompletableFuture.completedFuture((T) cached.value);
+        }
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, load);
+        if (existing != null) {
+            // Another caller is already loading this key
+            cache.coalesced();
+            return (CompletableFuture<T>) existing;
+        }
+        cache.miss();
+        long start = System.nanoTime();
+        send(key, cached).whenComplete((value, failure) -> {
+            inFlight.remove(key, load);
+            cache.loaded(System.nanoTime() - start);
+            if (failure != null) {
+                load.completeExceptionally(unwrap(failure));
+            } else {
+                load.complete(value);
+            }
+        });
+        return (CompletableFuture<T>) load;
+    }
+
+    private CompletableFuture<Object> send(ActuatorResponseCache.Key key, ActuatorResponseCache.Entry cached) {
+        String url = key.url();
+        HttpRequest request;
         try {
-            return mapper.readValue(new URI(url).toURL(), valueType);
-        } catch (IOException | URISyntaxException e) {
-            throw new ActuatorException("Failed to read actuator data from URL: " + url, e);
+            URI uri = URI.create(url);
+            LocalActuatorEndpoints.Invocation local = localEndpoints.resolve(uri);
+            if (local != null) {
+                try {
+                    return CompletableFuture.supplyAsync(() -> {
+                        Object value = convert(local.invoke(), key.type());
+                        // Cached for the endpoint's time to live like HTTP responses, without validators
+                        cache.put(key, value, null, null);
+                        return value;
+                    }, localExecutor);
+                } catch (RejectedExecutionException e) {
+                    return CompletableFuture.failedFuture(
+                            new ActuatorException("Too many concurrent local actuator invocations", e));
+                }
+            }
+            HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                    .timeout(properties.getReadTimeout())
+                    .header("Accept", "application/json")
+                    .GET();
+            if (cached != null && cached.etag != null) {
+                builder.header("If-None-Match", cached.etag);
+            } else if (cached != null && cached.lastModified != null) {
+                builder.header("If-Modified-Since", cached.lastModified);
+            }
+            request = builder.build();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(
+                    new ActuatorException("Failed to read actuator data from URL: " + url, e));
         }
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, failure) -> {
+                    if (failure != null) {
+                        throw new ActuatorException("Failed to read actuator data from URL: " + url,
+                                unwrap(failure));
+                    }
+                    if (response.statusCode() == 304 && cached != null) {
+                        cache.revalidated(key, cached);
+                        return cached.value;
+                    }
+                    if (response.statusCode() >= 300) {
+                        throw new ActuatorException(
+                                "Actuator returned HTTP " + response.statusCode() + " for URL: " + url);
+                    }
+                    Object value;
+                    try {
+                        value = mapper.readValue(response.body(), key.type());
+                    } catch (IOException e) {
+                        throw new ActuatorException("Failed to read actuator data from URL: " + url, e);
+                    }
+                    cache.put(key, value, response.headers().firstValue("ETag").orElse(null),
+                            response.headers().firstValue("Last-Modified").orElse(null));
+                    return value;
+                });
     }
 
-    public <T> T getActuatorData(String url, TypeReference<T> valueTypeRef) {
+    private Object convert(Object body, JavaType type) {
+        if (!type.hasGenericTypes() && type.getRawClass().isInstance(body)) {
+            return body;
+        }
+        // Goes through a token buffer, not through JSON text
+        return mapper.convertValue(body, type);
+    }
+
+    /**
+     * Sends a request and hands the response body to a blocking parser, which
+     * runs on the client's executor.
+     */
+    private <R> CompletableFuture<R> stream(String url, BodyParser<R> parser) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(properties.getReadTimeout())
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(
+                    new ActuatorException("Failed to read actuator data from URL: " + url, e));
+        }
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .handle((response, failure) -> {
+                    if (failure != null) {
+                        throw new ActuatorException("Failed to read actuator data from URL: " + url,
+                                unwrap(failure));
+                    }
+                    // Closing the stream early discards the rest of the body
+                    try (InputStream body = response.body()) {
+                        if (response.statusCode() >= 300) {
+                            throw new ActuatorException(
+                                    "Actuator returned HTTP " + response.statusCode() + " for URL: " + url);
+                        }
+                        return parser.parse(body);
+                    } catch (IOException e) {
+                        throw new ActuatorException("Failed to read actuator data from URL: " + url, e);
+                    }
+                });
+    }
+
+    private JsonParser filter(InputStream in, TokenFilter filter, TokenFilter.Inclusion inclusion,
+            boolean multipleMatches) throws IOException {
+        return new FilteringParserDelegate(mapper.createParser(in), filter, inclusion, multipleMatches);
+    }
+
+    @FunctionalInterface
+    private interface BodyParser<R> {
+        R parse(InputStream body) throws IOException;
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    @Override
+    public void close() {
+        if (localPool != null) {
+            localPool.shutdownNow();
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
         try {
-            return mapper.readValue(new URI(url).toURL(), valueTypeRef);
-        } catch (IOException | URISyntaxException e) {
-            throw new ActuatorException("Failed to read actuator data from URL: " + url, e);
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ActuatorException actuatorException) {
+                throw actuatorException;
+            }
+            throw new ActuatorException("Failed to read actuator data", e.getCause());
+        }
+    }
+
+    /**
+     * Statistics of the response cache.
+     *
+     * @param hits
+     *            requests answered from the cache
+     * @param coalesced
+     *            requests that joined a load already running for the same key
+     * @param misses
+     *            requests that sent an HTTP request
+     * @param revalidations
+     *            expired responses the server confirmed as unchanged
+     * @param evictions
+     *            responses removed to stay within the size limit
+     * @param size
+     *            the number of cached responses
+     * @param averageLoadMillis
+     *            the average duration of an HTTP request including parsing
+     */
+    public record CacheStatistics(long hits, long coalesced, long misses, long revalidations, long evictions,
+            int size, double averageLoadMillis) {
+    }
+
+    /**
+     * A cached response.
+     *
+     * @param url
+     *            the requested URL
+     * @param type
+     *            the type the response was parsed into
+     * @param expiresIn
+     *            the remaining time to live, negative once expired
+     * @param revalidatable
+     *            whether the endpoint sent an ETag or Last-Modified validator
+     */
+    public record CacheEntry(String url, String type, Duration expiresIn, boolean revalidatable) {
+    }
+
+    /**
+     * Result of reading an endpoint from one cluster node.
+     *
+     * @param node
+     *            the actuator base URL of the node
+     * @param value
+     *            the response, or {@code null} if the node failed
+     * @param error
+     *            why the node failed, or {@code null}
+     * @param elapsedMillis
+     *            how long the node took to answer or fail
+     */
+    public record NodeResult<T>(String node, T value, String error, long elapsedMillis) {
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    /**
+     * Queries one endpoint on a list of nodes. Each worker takes the next node
+     * once its previous one has answered, which bounds the concurrency without
+     * blocking a thread.
+     */
+    private final class ClusterQuery<T> {
+
+        private final List<String> nodes;
+        private final String path;
+        private final JavaType type;
+        private final AtomicReferenceArray<NodeResult<T>> results;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private final CompletableFuture<List<NodeResult<T>>> done = new CompletableFuture<>();
+
+        ClusterQuery(List<String> nodes, String path, JavaType type) {
+            this.nodes = nodes;
+            this.path = path;
+            this.type = type;
+            this.results = new AtomicReferenceArray<>(nodes.size());
+            this.remaining = new AtomicInteger(nodes.size());
+        }
+
+        CompletableFuture<List<NodeResult<T>>> start(int workers) {
+            if (nodes.isEmpty()) {
+                done.complete(List.of());
+            }
+            for (int i = 0; i < Math.min(workers, nodes.size()); i++) {
+                queryNext();
+            }
+            return done;
+        }
+
+        private void queryNext() {
+            int index = next.getAndIncrement();
+            if (index >= nodes.size()) {
+                return;
+            }
+            String node = nodes.get(index);
+            Duration timeout = properties.getCluster().getTimeout();
+            long start = System.nanoTime();
+            // Copy, so the deadline does not fail a load shared with other callers
+            ActuatorService.this.<T> fetch(node + path, type).copy()
+                    .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .whenComplete((value, failure) -> {
+                        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                        results.set(index, failure == null
+                                ? new NodeResult<>(node, value, null, elapsedMillis)
+                                : new NodeResult<>(node, null, describe(unwrap(failure), timeout), elapsedMillis));
+                        if (remaining.decrementAndGet() == 0) {
+                            List<NodeResult<T>> list = new ArrayList<>(nodes.size());
+                            for (int i = 0; i < nodes.size(); i++) {
+                                list.add(results.get(i));
+                            }
+                            done.complete(list);
+                        } else {
+                            queryNext();
+                        }
+                    });
+        }
+
+        private String describe(Throwable failure, Duration timeout) {
+            if (failure instanceof TimeoutException) {
+                return "No answer within " + timeout.toMillis() + " ms";
+            }
+            return failure.getMessage() != null ? failure.getMessage() : failure.getClass().getSimpleName();
         }
     }
 }
@@ -1,27 +1,90 @@
 package org.vaadin.kitchensink.service;
 
-import java.io.File;
-import java.net.URISyntaxException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 
-import org.cyclonedx.exception.ParseException;
-import org.cyclonedx.model.Bom;
-import org.cyclonedx.parsers.JsonParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+/**
+ * Provides the application's bill of materials.
+ * <p>
+ * The BOM is loaded from the classpath the first time it is requested, by a
+ * single thread while concurrent callers wait, into an immutable
+ * {@link BomModel} that all views share. The binary index compiled by the build
+ * is mapped when present; otherwise the JSON BOM is streamed from the resource,
+ * which also works from inside the packaged jar.
+ * </p>
+ */
 @Service
 public class BillOfMaterialsService {
 
-    public Bom getBom() {
-        JsonParser parser = new JsonParser();
-        try {
-            URL bomFileUrl = BillOfMaterialsService.class.getResource("/resources/bom.json");
-            Path bomFilePath = Paths.get(bomFileUrl.toURI());
-            File bomFile = bomFilePath.toFile();
-            return parser.parse(bomFile);
-        } catch (URISyntaxException | ParseException e) {
+    private static final Logger logger = LoggerFactory.getLogger(BillOfMaterialsService.class);
+
+    private static final String BOM_RESOURCE = "/resources/bom.json";
+    private static final String INDEX_RESOURCE = "/resources/bom.idx";
+
+    private volatile BomModel model;
+    private volatile BomSearchIndex searchIndex;
+
+    /**
+     * Returns the indexed BOM, loading it on first use.
+     *
+     * @throws BillOfMaterialsException
+     *             if the BOM cannot be read; the next call tries again
+     */
+    public BomModel getModel() {
+        BomModel current = model;
+        if (current == null) {
+            synchronized (this) {
+                current = model;
+                if (current == null) {
+                    current = load();
+                    model = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Returns the search index over the BOM, building it on first use.
+     *
+     * @throws BillOfMaterialsException
+     *             if the BOM cannot be read
+     */
+    public BomSearchIndex getSearchIndex() {
+        BomSearchIndex current = searchIndex;
+        if (current == null) {
+            BomModel bom = getModel();
+            synchronized (this) {
+                current = searchIndex;
+                if (current == null) {
+                    current = new BomSearchIndex(bom);
+                    searchIndex = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static BomModel load() {
+        URL index = BillOfMaterialsService.class.getResource(INDEX_RESOURCE);
+        if (index != null) {
+            try {
+                return MappedBomModel.open(index);
+            } catch (IOException e) {
+                logger.warn("Ignoring unreadable bill of materials index {}", index, e);
+            }
+        }
+        try (InputStream in = BillOfMaterialsService.class.getResourceAsStream(BOM_RESOURCE)) {
+            if (in == null) {
+                throw new BillOfMaterialsException("Bill of materials not found on the classpath: " + BOM_RESOURCE);
+            }
+            return BomJsonReader.read(in);
+        } catch (IOException e) {
             throw new BillOfMaterialsException("Failed to read bill of materials data", e);
         }
     }
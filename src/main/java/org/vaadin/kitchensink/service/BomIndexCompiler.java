@@ -0,0 +1,129 @@
+package org.vaadin.kitchensink.service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Compiles the CycloneDX JSON BOM into the binary index described in
+ * {@link BomIndexFormat}, so the application can map it at startup instead of
+ * parsing JSON.
+ * <p>
+ * Run by the build after {@code bom.json} has been generated:
+ * {@code BomIndexCompiler <bom.json> <bom.idx>}. A missing input is not an
+ * error, as the BOM is only generated by full builds.
+ * </p>
+ */
+public final class BomIndexCompiler {
+
+    private BomIndexCompiler() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: BomIndexCompiler <bom.json> <bom.idx>");
+        }
+        Path input = Path.of(args[0]);
+        Path output = Path.of(args[1]);
+        if (!Files.exists(input)) {
+            System.out.println("No bill of materials at " + input + ", skipping index");
+            return;
+        }
+        BomModel model;
+        try (InputStream in = Files.newInputStream(input)) {
+            model = BomJsonReader.read(in);
+        }
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output)))) {
+            write(model, out);
+        }
+        System.out.println("Indexed " + model.size() + " components into " + output);
+    }
+
+    static void write(BomModel model, DataOutputStream out) throws IOException {
+        int size = model.size();
+        Map<String, Integer> stringIndexes = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        int[] components = new int[size * BomIndexFormat.COMPONENT_INTS];
+        int edgeCount = 0;
+        for (int component = 0; component < size; component++) {
+            int record = component * BomIndexFormat.COMPONENT_INTS;
+            components[record + BomIndexFormat.BOM_REF] = intern(model.getBomRef(component), stringIndexes, strings);
+            components[record + BomIndexFormat.GROUP] = intern(model.getGroup(component), stringIndexes, strings);
+            components[record + BomIndexFormat.NAME] = intern(model.getName(component), stringIndexes, strings);
+            components[record + BomIndexFormat.VERSION_FIELD] = intern(model.getVersion(component), stringIndexes,
+                    strings);
+            components[record + BomIndexFormat.TYPE] = intern(model.getType(component), stringIndexes, strings);
+            components[record + BomIndexFormat.SCOPE] = intern(model.getScope(component), stringIndexes, strings);
+            components[record + BomIndexFormat.FIRST_EDGE] = edgeCount;
+            components[record + BomIndexFormat.EDGE_COUNT] = model.getChildCount(component);
+            edgeCount += model.getChildCount(component);
+        }
+        // Only the component a bom-ref resolves to is searchable by it
+        int[] refs = IntStream.range(0, size)
+                .filter(component -> model.getBomRef(component) != null
+                        && model.indexOf(model.getBomRef(component)) == component)
+                .boxed()
+                .sorted(Comparator.comparing(component -> model.getBomRef(component).getBytes(StandardCharsets.UTF_8),
+                        Arrays::compareUnsigned))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+        int[] offsets = new int[strings.size() + 1];
+        for (int i = 0; i < strings.size(); i++) {
+            offsets[i] = stringBytes.size();
+            stringBytes.writeBytes(strings.get(i).getBytes(StandardCharsets.UTF_8));
+        }
+        offsets[strings.size()] = stringBytes.size();
+
+        out.writeInt(BomIndexFormat.MAGIC);
+        out.writeInt(BomIndexFormat.VERSION);
+        out.writeInt(size);
+        out.writeInt(strings.size());
+        out.writeInt(model.getTopLevelCount());
+        out.writeInt(edgeCount);
+        out.writeInt(refs.length);
+        out.writeInt(stringBytes.size());
+        writeInts(out, offsets);
+        writeInts(out, components);
+        for (int position = 0; position < model.getTopLevelCount(); position++) {
+            out.writeInt(model.getTopLevel(position));
+        }
+        for (int component = 0; component < size; component++) {
+            for (int position = 0; position < model.getChildCount(component); position++) {
+                out.writeInt(model.getChild(component, position));
+            }
+        }
+        writeInts(out, refs);
+        stringBytes.writeTo(out);
+    }
+
+    private static int intern(String value, Map<String, Integer> stringIndexes, List<String> strings) {
+        if (value == null) {
+            return -1;
+        }
+        return stringIndexes.computeIfAbsent(value, key -> {
+            strings.add(key);
+            return strings.size() - 1;
+        });
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.vaadin.kitchensink.service;
+
+/**
+ * Layout of the binary BOM index written by {@link BomIndexCompiler} and read
+ * by {@link MappedBomModel}.
+ * <p>
+ * All values are big-endian 32-bit integers, followed by the UTF-8 bytes of the
+ * string table:
+ * </p>
+ *
+ * <pre>
+ * header       MAGIC, VERSION, components, strings, topLevel, edges, refs, stringBytes
+ * strings      offset of each string in the string bytes, plus the end offset
+ * components   per component: bom-ref, group, name, version, type, scope
+ *              (string indexes, -1 for none), first edge, edge count
+ * topLevel     component indexes in name order
+ * edges        child component indexes, grouped by parent in name order
+ * refs         component indexes ordered by the unsigned UTF-8 bytes of their
+ *              bom-ref, for a binary search comparing the string table in place
+ * stringBytes  the string table
+ * </pre>
+ */
+final class BomIndexFormat {
+
+    static final int MAGIC = 0x424f4d49; // "BOMI"
+    static final int VERSION = 3;
+    static final int HEADER_INTS = 8;
+    static final int COMPONENT_INTS = 8;
+
+    static final int BOM_REF = 0;
+    static final int GROUP = 1;
+    static final int NAME = 2;
+    static final int VERSION_FIELD = 3;
+    static final int TYPE = 4;
+    static final int SCOPE = 5;
+    static final int FIRST_EDGE = 6;
+    static final int EDGE_COUNT = 7;
+
+    private BomIndexFormat() {
+    }
+}
@@ -0,0 +1,119 @@
+package org.vaadin.kitchensink.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reads a CycloneDX JSON BOM into a {@link BomModel} with a streaming parser.
+ * <p>
+ * Only the component fields the views show or search and the dependency
+ * section are kept; everything else, such as hashes, licenses and external references, is
+ * skipped without being materialized.
+ * </p>
+ */
+final class BomJsonReader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private BomJsonReader() {
+    }
+
+    static BomModel read(InputStream in) throws IOException {
+        IndexedBomModel.Builder builder = new IndexedBomModel.Builder();
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                case "components" -> readComponents(parser, builder, -1);
+                case "dependencies" -> readDependencies(parser, builder);
+                default -> parser.skipChildren();
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static void readComponents(JsonParser parser, IndexedBomModel.Builder builder, int parent)
+            throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return;
+        }
+        expect(parser, parser.currentToken(), JsonToken.START_ARRAY);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+            readComponent(parser, builder, parent);
+        }
+    }
+
+    private static void readComponent(JsonParser parser, IndexedBomModel.Builder builder, int parent)
+            throws IOException {
+        // Reserve the index first, nested components may come before the fields
+        int index = builder.addComponent(parent);
+        String bomRef = null;
+        String group = null;
+        String name = null;
+        String version = null;
+        String type = null;
+        String scope = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+            case "bom-ref" -> bomRef = parser.getValueAsString();
+            case "group" -> group = parser.getValueAsString();
+            case "name" -> name = parser.getValueAsString();
+            case "version" -> version = parser.getValueAsString();
+            case "type" -> type = parser.getValueAsString();
+            case "scope" -> scope = parser.getValueAsString();
+            case "components" -> readComponents(parser, builder, index);
+            default -> parser.skipChildren();
+            }
+        }
+        builder.setComponent(index, bomRef, group, name, version, type, scope);
+    }
+
+    private static void readDependencies(JsonParser parser, IndexedBomModel.Builder builder) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return;
+        }
+        expect(parser, parser.currentToken(), JsonToken.START_ARRAY);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+            String ref = null;
+            List<String> dependsOn = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("ref".equals(field)) {
+                    ref = parser.getValueAsString();
+                } else if ("dependsOn".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                            dependsOn.add(parser.getText());
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            builder.addDependency(ref, dependsOn);
+        }
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws JsonParseException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but found " + actual);
+        }
+    }
+}
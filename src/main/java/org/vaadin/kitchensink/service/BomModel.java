@@ -0,0 +1,65 @@
+package org.vaadin.kitchensink.service;
+
+/**
+ * Read-only, indexed view of the application's bill of materials.
+ * <p>
+ * Components are addressed by their index, from {@code 0} to
+ * {@code size() - 1}, and the model is shared by all views. Walking the tree
+ * through child and top-level positions neither parses nor allocates; the
+ * string getters may decode a new string on each call, so callers reading a
+ * field repeatedly should keep the result. Children and top-level components
+ * are sorted by name, ignoring case.
+ * </p>
+ */
+public interface BomModel {
+
+    /**
+     * Returns the number of components.
+     */
+    int size();
+
+    String getBomRef(int component);
+
+    String getGroup(int component);
+
+    String getName(int component);
+
+    String getVersion(int component);
+
+    String getType(int component);
+
+    String getScope(int component);
+
+    /**
+     * Returns the index of the component with the given bom-ref, or {@code -1}.
+     */
+    int indexOf(String bomRef);
+
+    /**
+     * Returns the number of direct dependencies of a component.
+     */
+    int getChildCount(int component);
+
+    /**
+     * Returns the index of a direct dependency of a component.
+     *
+     * @param position
+     *            the position among the component's dependencies, in name order
+     */
+    int getChild(int component, int position);
+
+    /**
+     * Returns the number of components listed at the top level, which are the
+     * components with a dependency entry in the BOM, or all top-level components
+     * if the BOM has no dependency section.
+     */
+    int getTopLevelCount();
+
+    /**
+     * Returns the index of a top-level component.
+     *
+     * @param position
+     *            the position among the top-level components, in name order
+     */
+    int getTopLevel(int position);
+}
@@ -0,0 +1,253 @@
+package org.vaadin.kitchensink.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Substring search over the names, groups and versions of the components in a
+ * {@link BomModel}.
+ * <p>
+ * Every lower-cased field is split into trigrams, each mapped to the sorted
+ * components containing it. A query intersects the posting lists of its own
+ * trigrams, rarest first; a component in every list contains all trigrams of
+ * the query but not necessarily in the right order, so only those components
+ * have their fields read and compared with the query. Queries shorter than a
+ * trigram compare every component. The index also keeps the reverse
+ * dependency edges, so matches can be extended to every component they are
+ * reachable from.
+ * </p>
+ * <p>
+ * Trigrams and posting lists are stored as sorted primitive arrays and no text
+ * is kept, so the index costs a few integers per trigram occurrence on top of
+ * the model.
+ * </p>
+ */
+public final class BomSearchIndex {
+
+    private static final int GRAM = 3;
+    private static final char FIELD_SEPARATOR = '\0';
+    private static final int[] NONE = new int[0];
+
+    private final BomModel bom;
+    // Distinct trigrams in ascending order; the components of grams[i] are
+    // postings[postingStarts[i]] to postings[postingStarts[i + 1]], ascending
+    private final long[] grams;
+    private final int[] postingStarts;
+    private final int[] postings;
+    private final int[][] parents;
+
+    /**
+     * Components matching a query.
+     *
+     * @param matches
+     *            the components whose name, group or version contains the query
+     * @param paths
+     *            the matches and every component a match is reachable from
+     */
+    public record SearchResult(BitSet matches, BitSet paths) {
+    }
+
+    BomSearchIndex(BomModel bom) {
+        this.bom = bom;
+        int size = bom.size();
+        // Only needed while building, the index keeps the flattened arrays
+        Map<Long, IntList> lists = new HashMap<>();
+        int occurrences = 0;
+        for (int component = 0; component < size; component++) {
+            String text = text(component);
+            for (int start = 0; start + GRAM <= text.length(); start++) {
+                long gram = gram(text, start);
+                if (gram >= 0 && lists.computeIfAbsent(gram, key -> new IntList()).addOnce(component)) {
+                    occurrences++;
+                }
+            }
+        }
+        this.grams = lists.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        this.postingStarts = new int[grams.length + 1];
+        this.postings = new int[occurrences];
+        int offset = 0;
+        for (int i = 0; i < grams.length; i++) {
+            postingStarts[i] = offset;
+            IntList list = lists.get(grams[i]);
+            System.arraycopy(list.values, 0, postings, offset, list.size);
+            offset += list.size;
+        }
+        postingStarts[grams.length] = offset;
+
+        IntList[] parentLists = new IntList[size];
+        for (int component = 0; component < size; component++) {
+            for (int position = 0; position < bom.getChildCount(component); position++) {
+                int child = bom.getChild(component, position);
+                if (parentLists[child] == null) {
+                    parentLists[child] = new IntList();
+                }
+                parentLists[child].addOnce(component);
+            }
+        }
+        this.parents = new int[size][];
+        for (int component = 0; component < size; component++) {
+            parents[component] = parentLists[component] != null ? parentLists[component].toArray() : NONE;
+        }
+    }
+
+    /**
+     * Returns the model this index searches.
+     */
+    public BomModel getModel() {
+        return bom;
+    }
+
+    /**
+     * Finds the components whose name, group or version contains the given
+     * text, ignoring case, and the components they are reachable from.
+     */
+    public SearchResult search(String text) {
+        String query = lower(text);
+        int size = bom.size();
+        BitSet matches = new BitSet(size);
+        if (query.indexOf(FIELD_SEPARATOR) >= 0) {
+            return new SearchResult(matches, new BitSet(size));
+        }
+        if (query.length() < GRAM) {
+            for (int component = 0; component < size; component++) {
+                if (text(component).contains(query)) {
+                    matches.set(component);
+                }
+            }
+        } else {
+            for (int component : candidates(query)) {
+                if (text(component).contains(query)) {
+                    matches.set(component);
+                }
+            }
+        }
+        return new SearchResult(matches, withAncestors(matches));
+    }
+
+    /**
+     * Returns the components containing every trigram of the query.
+     */
+    private int[] candidates(String query) {
+        int[] lists = new int[query.length() - GRAM + 1];
+        for (int start = 0; start < lists.length; start++) {
+            int list = Arrays.binarySearch(grams, gram(query, start));
+            if (list < 0) {
+                return NONE;
+            }
+            lists[start] = list;
+        }
+        // Intersect the shortest lists first, so the candidates shrink quickly
+        int[] order = Arrays.stream(lists).boxed()
+                .sorted((first, second) -> Integer.compare(length(first), length(second)))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        int[] result = Arrays.copyOfRange(postings, postingStarts[order[0]], postingStarts[order[0] + 1]);
+        for (int i = 1; i < order.length && result.length > 0; i++) {
+            result = intersect(result, postingStarts[order[i]], postingStarts[order[i] + 1]);
+        }
+        return result;
+    }
+
+    private int length(int list) {
+        return postingStarts[list + 1] - postingStarts[list];
+    }
+
+    private BitSet withAncestors(BitSet matches) {
+        BitSet paths = (BitSet) matches.clone();
+        int[] queue = new int[bom.size()];
+        int head = 0;
+        int tail = 0;
+        for (int component = matches.nextSetBit(0); component >= 0; component = matches.nextSetBit(component + 1)) {
+            queue[tail++] = component;
+        }
+        while (head < tail) {
+            for (int parent : parents[queue[head++]]) {
+                if (!paths.get(parent)) {
+                    paths.set(parent);
+                    queue[tail++] = parent;
+                }
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Intersects sorted components with the postings from {@code start} to
+     * {@code end}.
+     */
+    private int[] intersect(int[] first, int start, int end) {
+        int[] result = new int[Math.min(first.length, end - start)];
+        int count = 0;
+        int i = 0;
+        int j = start;
+        while (i < first.length && j < end) {
+            if (first[i] < postings[j]) {
+                i++;
+            } else if (first[i] > postings[j]) {
+                j++;
+            } else {
+                result[count++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Returns the searched fields of a component, lower-cased. They are searched
+     * together but the separator keeps matches within one field.
+     */
+    private String text(int component) {
+        return lower(bom.getName(component)) + FIELD_SEPARATOR + lower(bom.getGroup(component))
+                + FIELD_SEPARATOR + lower(bom.getVersion(component));
+    }
+
+    /**
+     * Packs the three characters at a position into a key, or returns
+     * {@code -1} if they cross a field boundary.
+     */
+    private static long gram(String text, int start) {
+        char first = text.charAt(start);
+        char second = text.charAt(start + 1);
+        char third = text.charAt(start + 2);
+        if (first == FIELD_SEPARATOR || second == FIELD_SEPARATOR || third == FIELD_SEPARATOR) {
+            return -1;
+        }
+        return ((long) first << 32) | ((long) second << 16) | third;
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * Growable list of ascending component indexes.
+     */
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        /**
+         * Appends a value unless it is the last one, returning whether it was added.
+         */
+        boolean addOnce(int value) {
+            if (size > 0 && values[size - 1] == value) {
+                return false;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+            return true;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.vaadin.kitchensink.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Counts the open health dashboards by whether they receive updates or are
+ * suspended because their tab is hidden or idle, published as the
+ * {@code kitchensink.health.views} gauge with a {@code state} tag.
+ */
+@Service
+public class DashboardActivity {
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger suspended = new AtomicInteger();
+
+    public DashboardActivity(MeterRegistry meterRegistry) {
+        Gauge.builder("kitchensink.health.views", active, AtomicInteger::get)
+                .description("Open health dashboards receiving updates")
+                .tag("state", "active")
+                .register(meterRegistry);
+        Gauge.builder("kitchensink.health.views", suspended, AtomicInteger::get)
+                .description("Open health dashboards on a back-off schedule")
+                .tag("state", "suspended")
+                .register(meterRegistry);
+    }
+
+    public void viewAttached() {
+        active.incrementAndGet();
+    }
+
+    public void viewDetached(boolean wasSuspended) {
+        (wasSuspended ? suspended : active).decrementAndGet();
+    }
+
+    public void viewSuspended() {
+        active.decrementAndGet();
+        suspended.incrementAndGet();
+    }
+
+    public void viewResumed() {
+        suspended.decrementAndGet();
+        active.incrementAndGet();
+    }
+
+    public int getActiveViews() {
+        return active.get();
+    }
+
+    public int getSuspendedViews() {
+        return suspended.get();
+    }
+}
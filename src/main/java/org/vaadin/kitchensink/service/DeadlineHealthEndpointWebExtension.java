@@ -0,0 +1,69 @@
+package org.vaadin.kitchensink.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.ApiVersion;
+import org.springframework.boot.actuate.endpoint.SecurityContext;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.WebServerNamespace;
+import org.springframework.boot.actuate.endpoint.web.annotation.EndpointWebExtension;
+import org.springframework.boot.actuate.health.HealthComponent;
+import org.springframework.boot.actuate.health.HealthContributorRegistry;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.HealthEndpointGroup;
+import org.springframework.boot.actuate.health.HealthEndpointGroups;
+import org.springframework.boot.actuate.health.HealthEndpointWebExtension;
+
+/**
+ * Health endpoint web extension that starts every indicator of the requested
+ * group on the {@link HealthEvaluationEngine} before the actuator collects them.
+ * <p>
+ * The actuator evaluates the contributors of {@code /health} and of groups such
+ * as {@code /health/readiness} one after another. Each one is a
+ * {@link DeadlineHealthIndicator} that collects the invocation started here, so
+ * every indicator runs once and the response takes at most one timeout rather
+ * than one per slow indicator. Requests for a single component, such as
+ * {@code /health/db} or {@code /health/readiness/db}, start only that component.
+ * </p>
+ */
+@EndpointWebExtension(endpoint = HealthEndpoint.class)
+public class DeadlineHealthEndpointWebExtension extends HealthEndpointWebExtension {
+
+    private final HealthEndpointGroups groups;
+    private final ObjectProvider<HealthEvaluationEngine> engine;
+
+    public DeadlineHealthEndpointWebExtension(HealthContributorRegistry registry, HealthEndpointGroups groups,
+            Duration slowIndicatorLoggingThreshold, ObjectProvider<HealthEvaluationEngine> engine) {
+        super(registry, groups, slowIndicatorLoggingThreshold);
+        this.groups = groups;
+        this.engine = engine;
+    }
+
+    @Override
+    public WebEndpointResponse<HealthComponent> health(ApiVersion apiVersion, WebServerNamespace serverNamespace,
+            SecurityContext securityContext, boolean showAll, String... path) {
+        HealthEvaluationEngine evaluationEngine = engine.getIfAvailable();
+        if (evaluationEngine == null) {
+            return super.health(apiVersion, serverNamespace, securityContext, showAll, path);
+        }
+        try (HealthEvaluationEngine.Batch batch = evaluationEngine.start(members(path))) {
+            return super.health(apiVersion, serverNamespace, securityContext, showAll, path);
+        }
+    }
+
+    /**
+     * Returns the contributor names a request reads, resolving the path the way
+     * the actuator does: a leading group name, then an optional component.
+     */
+    private Predicate<String> members(String... path) {
+        HealthEndpointGroup group = path.length > 0 ? groups.get(path[0]) : null;
+        int offset = group != null ? 1 : 0;
+        HealthEndpointGroup members = group != null ? group : groups.getPrimary();
+        String component = String.join("/", Arrays.copyOfRange(path, offset, path.length));
+        return name -> members.isMember(name)
+                && (component.isEmpty() || name.equals(component) || name.startsWith(component + "/"));
+    }
+}
@@ -0,0 +1,81 @@
+package org.vaadin.kitchensink.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.CompositeHealthContributor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthContributor;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * Health indicator that runs its delegate through the
+ * {@link HealthEvaluationEngine}, so the health endpoint and its groups get the
+ * same per-indicator deadline as the dashboard.
+ * <p>
+ * Only the entries of the health contributor registry are decorated, the
+ * indicator beans themselves are left alone and can still be injected by their
+ * own type.
+ * </p>
+ */
+public final class DeadlineHealthIndicator implements HealthIndicator {
+
+    private final String name;
+    private final HealthIndicator delegate;
+    private final ObjectProvider<HealthEvaluationEngine> engine;
+
+    /**
+     * Creates an indicator evaluated under the given contributor name.
+     *
+     * @param name
+     *            the contributor name, {@code parent/child} for components of
+     *            composite contributors, matching the names used by the engine
+     * @param delegate
+     *            the indicator to run
+     * @param engine
+     *            the engine applying the deadline
+     */
+    public DeadlineHealthIndicator(String name, HealthIndicator delegate,
+            ObjectProvider<HealthEvaluationEngine> engine) {
+        this.name = name;
+        this.delegate = delegate;
+        this.engine = engine;
+    }
+
+    /**
+     * Returns the given contributor with every indicator in it decorated,
+     * including the components of composite contributors. Other contributors are
+     * returned unchanged.
+     *
+     * @param name
+     *            the contributor name
+     * @param contributor
+     *            the contributor to decorate
+     * @param engine
+     *            the engine applying the deadline
+     */
+    public static HealthContributor decorate(String name, HealthContributor contributor,
+            ObjectProvider<HealthEvaluationEngine> engine) {
+        if (contributor instanceof HealthIndicator indicator && !(contributor instanceof DeadlineHealthIndicator)) {
+            return new DeadlineHealthIndicator(name, indicator, engine);
+        }
+        if (contributor instanceof CompositeHealthContributor composite) {
+            Map<String, HealthContributor> components = new LinkedHashMap<>();
+            composite.forEach(component -> components.put(component.getName(),
+                    decorate(name + "/" + component.getName(), component.getContributor(), engine)));
+            return CompositeHealthContributor.fromMap(components);
+        }
+        return contributor;
+    }
+
+    public HealthIndicator getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Health health() {
+        HealthEvaluationEngine evaluationEngine = engine.getIfAvailable();
+        return evaluationEngine != null ? evaluationEngine.evaluate(name, delegate) : delegate.health();
+    }
+}
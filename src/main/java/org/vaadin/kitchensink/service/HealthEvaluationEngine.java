@@ -0,0 +1,242 @@
+package org.vaadin.kitchensink.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.springframework.boot.actuate.health.CompositeHealthContributor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthContributor;
+import org.springframework.boot.actuate.health.HealthContributorRegistry;
+import org.springframework.boot.actuate.health.HealthEndpointGroups;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.NamedContributor;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.actuate.health.StatusAggregator;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs health indicators concurrently on a bounded pool, giving each one a
+ * deadline.
+ * <p>
+ * An indicator that does not answer in time is reported with the {@link #TIMEOUT}
+ * status, including its last known status, while the others are returned as
+ * soon as they finish. A check that is still running is not started again; later
+ * evaluations wait on the same invocation, so a hanging indicator occupies at
+ * most one thread. The deadline counts from the start of the invocation, so
+ * indicators started together time out together however long callers take to
+ * collect their results. When the pool and its queue are full, checks are not
+ * started at all and report {@link #TIMEOUT} right away.
+ * </p>
+ * <p>
+ * Checks started together with {@link #start(Predicate)} are bound to the
+ * calling thread until the returned {@link Batch} is closed. Evaluating one of
+ * them on that thread returns the result of that invocation even when it has
+ * already finished, so each check runs once per request and none gets a second
+ * deadline after a slow sibling.
+ * </p>
+ */
+@Service
+public class HealthEvaluationEngine implements AutoCloseable {
+
+    /**
+     * Status of an indicator that did not finish before its deadline.
+     */
+    public static final Status TIMEOUT = new Status("TIMEOUT", "Health check did not finish in time");
+
+    private final HealthContributorRegistry registry;
+    private final StatusAggregator statusAggregator;
+    private final Duration timeout;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentMap<String, Invocation> running = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Health> lastResults = new ConcurrentHashMap<>();
+    private final ThreadLocal<Map<String, Invocation>> batch = new ThreadLocal<>();
+
+    public HealthEvaluationEngine(HealthContributorRegistry registry, HealthEndpointGroups groups,
+            HealthProperties properties) {
+        this.registry = registry;
+        this.statusAggregator = groups.getPrimary().getStatusAggregator();
+        this.timeout = properties.getTimeout();
+        int threads = properties.getThreads();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 4), runnable -> {
+                    Thread thread = new Thread(runnable, "health-check-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Evaluates every registered indicator concurrently. Components of composite
+     * contributors are reported as {@code parent/child}.
+     *
+     * @return the snapshot, complete at the latest when the timeout has elapsed
+     */
+    public HealthSnapshot evaluate() {
+        Map<String, HealthIndicator> indicators = new LinkedHashMap<>();
+        collect("", registry, indicators);
+
+        Map<String, Invocation> invocations = new LinkedHashMap<>();
+        indicators.forEach((name, indicator) -> invocations.put(name, submit(name, indicator)));
+
+        List<HealthSnapshot.ComponentHealth> components = new ArrayList<>(invocations.size());
+        List<Status> statuses = new ArrayList<>(invocations.size());
+        invocations.forEach((name, invocation) -> {
+            Health health = await(name, invocation);
+            components.add(new HealthSnapshot.ComponentHealth(name, health.getStatus().getCode(),
+                    health.getDetails()));
+            statuses.add(health.getStatus());
+        });
+        Status status = statuses.isEmpty() ? Status.UNKNOWN : statusAggregator.getAggregateStatus(statuses);
+        return new HealthSnapshot(Instant.now(), status.getCode(), components);
+    }
+
+    /**
+     * Evaluates a single indicator, joining the invocation of the current
+     * {@link Batch} or one that is still running, and waiting at most until its
+     * deadline.
+     *
+     * @param name
+     *            the contributor name, {@code parent/child} for components of
+     *            composite contributors, under which invocations are shared
+     * @param indicator
+     *            the indicator to run
+     * @return the indicator's health, or a {@link #TIMEOUT} health
+     */
+    public Health evaluate(String name, HealthIndicator indicator) {
+        Map<String, Invocation> started = batch.get();
+        Invocation invocation = started != null ? started.get(name) : null;
+        return await(name, invocation != null ? invocation : submit(name, indicator));
+    }
+
+    /**
+     * Starts the registered indicators accepted by the given filter without
+     * waiting for them, so that evaluating them one after another on this thread
+     * before the batch is closed takes a single timeout at most.
+     *
+     * @param members
+     *            tests contributor names, {@code parent/child} for components of
+     *            composite contributors
+     * @return the started checks, to be closed once their results are collected
+     */
+    public Batch start(Predicate<String> members) {
+        Map<String, HealthIndicator> indicators = new LinkedHashMap<>();
+        collect("", registry, indicators);
+        Map<String, Invocation> started = new HashMap<>();
+        indicators.forEach((name, indicator) -> {
+            if (members.test(name)) {
+                started.put(name, submit(name, indicator));
+            }
+        });
+        Map<String, Invocation> enclosing = batch.get();
+        batch.set(started);
+        return () -> {
+            if (enclosing != null) {
+                batch.set(enclosing);
+            } else {
+                batch.remove();
+            }
+        };
+    }
+
+    private void collect(String prefix, Iterable<NamedContributor<HealthContributor>> contributors,
+            Map<String, HealthIndicator> indicators) {
+        for (NamedContributor<HealthContributor> named : contributors) {
+            String name = prefix + named.getName();
+            HealthContributor contributor = named.getContributor();
+            if (contributor instanceof DeadlineHealthIndicator deadlineIndicator) {
+                // Run the delegate directly, the deadline is applied here
+                indicators.put(name, deadlineIndicator.getDelegate());
+            } else if (contributor instanceof HealthIndicator indicator) {
+                indicators.put(name, indicator);
+            } else if (contributor instanceof CompositeHealthContributor composite) {
+                collect(name + "/", composite, indicators);
+            }
+        }
+    }
+
+    private Invocation submit(String name, HealthIndicator indicator) {
+        // Atomic per name, so concurrent callers never start the same check twice
+        return running.compute(name, (key, inFlight) -> inFlight != null && !inFlight.future().isDone()
+                ? inFlight : invoke(indicator));
+    }
+
+    private Invocation invoke(HealthIndicator indicator) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try {
+            return new Invocation(executor.submit(indicator::health), deadline);
+        } catch (RejectedExecutionException e) {
+            // Running the check on the caller's thread would take away its deadline
+            return new Invocation(CompletableFuture.failedFuture(e), deadline);
+        }
+    }
+
+    private Health await(String name, Invocation invocation) {
+        try {
+            Health health = invocation.future().get(Math.max(0, invocation.deadline() - System.nanoTime()),
+                    TimeUnit.NANOSECONDS);
+            lastResults.put(name, health);
+            return health;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                return timedOut(name);
+            }
+            Health health = Health.down(e.getCause() instanceof Exception cause ? cause : e).build();
+            lastResults.put(name, health);
+            return health;
+        } catch (TimeoutException e) {
+            return timedOut(name);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return timedOut(name);
+        }
+    }
+
+    private Health timedOut(String name) {
+        Health.Builder builder = Health.status(TIMEOUT).withDetail("timeout", timeout.toString());
+        Health last = lastResults.get(name);
+        if (last != null) {
+            builder.withDetail("lastStatus", last.getStatus().getCode());
+        }
+        return builder.build();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Checks started together for one request, bound to the thread that started
+     * them until closed.
+     */
+    public interface Batch extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    /**
+     * A running or finished check and the time it has to finish by.
+     */
+    private record Invocation(Future<Health> future, long deadline) {
+    }
+}
@@ -0,0 +1,187 @@
+package org.vaadin.kitchensink.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.stereotype.Service;
+
+import com.vaadin.flow.shared.Registration;
+
+/**
+ * Keeps the recent status history of every health component.
+ * <p>
+ * Each component has a fixed-size ring of samples, stored as a status byte and a
+ * timestamp, so memory stays bounded at about nine bytes per sample. The number
+ * of flaps and the time spent in each status are maintained incrementally as
+ * samples are added and evicted, and always describe the retained samples.
+ * </p>
+ */
+@Service
+public class HealthHistory implements AutoCloseable {
+
+    private static final String[] STATUSES = { "UNKNOWN", "UP", "DOWN", "OUT_OF_SERVICE", "TIMEOUT", "OTHER" };
+    private static final byte OTHER = (byte) (STATUSES.length - 1);
+
+    private final int capacity;
+    private final ConcurrentMap<String, Ring> components = new ConcurrentHashMap<>();
+    private final Registration subscription;
+
+    public HealthHistory(HealthSnapshotService snapshotService, HealthProperties properties) {
+        if (properties.getHistorySize() < 2) {
+            throw new IllegalArgumentException("Health history must keep at least two samples");
+        }
+        this.capacity = properties.getHistorySize();
+        this.subscription = snapshotService.subscribe(this::record);
+    }
+
+    /**
+     * Adds one sample per component of the snapshot.
+     */
+    public void record(HealthSnapshot snapshot) {
+        long timestamp = snapshot.checkedAt().toEpochMilli();
+        for (HealthSnapshot.ComponentHealth component : snapshot.components()) {
+            components.computeIfAbsent(component.name(), name -> new Ring(capacity))
+                    .add(encode(component.status()), timestamp);
+        }
+    }
+
+    /**
+     * Returns the names of all components with recorded samples.
+     */
+    public List<String> getComponents() {
+        return components.keySet().stream().sorted().toList();
+    }
+
+    /**
+     * Returns the statistics of a component, or {@code null} if it has no
+     * samples.
+     */
+    public ComponentStatistics getStatistics(String component) {
+        Ring ring = components.get(component);
+        return ring != null ? ring.statistics(component) : null;
+    }
+
+    /**
+     * Returns up to {@code count} of the most recent samples of a component,
+     * oldest first.
+     */
+    public List<Sample> getSamples(String component, int count) {
+        Ring ring = components.get(component);
+        return ring != null ? ring.samples(count) : List.of();
+    }
+
+    private static byte encode(String status) {
+        for (byte i = 0; i < OTHER; i++) {
+            if (STATUSES[i].equals(status)) {
+                return i;
+            }
+        }
+        return OTHER;
+    }
+
+    @Override
+    public void close() {
+        subscription.remove();
+    }
+
+    /**
+     * A single recorded status.
+     *
+     * @param timestamp
+     *            when the status was evaluated
+     * @param status
+     *            the status code, or {@code OTHER} for custom statuses
+     */
+    public record Sample(Instant timestamp, String status) {
+    }
+
+    /**
+     * Statistics over the retained samples of a component.
+     *
+     * @param component
+     *            the component name
+     * @param status
+     *            the most recent status
+     * @param samples
+     *            the number of retained samples
+     * @param since
+     *            the timestamp of the oldest retained sample
+     * @param flaps
+     *            how often the status changed between consecutive samples
+     * @param millisInState
+     *            the time spent in each status, attributing the time between two
+     *            samples to the status of the earlier one
+     */
+    public record ComponentStatistics(String component, String status, int samples, Instant since,
+            int flaps, Map<String, Long> millisInState) {
+    }
+
+    private static final class Ring {
+
+        private final byte[] statuses;
+        private final long[] timestamps;
+        private final long[] millisInState = new long[STATUSES.length];
+        private int head;
+        private int size;
+        private int flaps;
+
+        Ring(int capacity) {
+            this.statuses = new byte[capacity];
+            this.timestamps = new long[capacity];
+        }
+
+        synchronized void add(byte status, long timestamp) {
+            int capacity = statuses.length;
+            if (size == capacity) {
+                // Evict the oldest sample along with its transition and interval
+                int next = (head + 1) % capacity;
+                if (statuses[head] != statuses[next]) {
+                    flaps--;
+                }
+                millisInState[statuses[head]] -= timestamps[next] - timestamps[head];
+                head = next;
+                size--;
+            }
+            if (size > 0) {
+                int last = (head + size - 1) % capacity;
+                // Keep timestamps monotonic so evicting an interval undoes adding it
+                timestamp = Math.max(timestamp, timestamps[last]);
+                if (statuses[last] != status) {
+                    flaps++;
+                }
+                millisInState[statuses[last]] += timestamp - timestamps[last];
+            }
+            int index = (head + size) % capacity;
+            statuses[index] = status;
+            timestamps[index] = timestamp;
+            size++;
+        }
+
+        synchronized ComponentStatistics statistics(String component) {
+            Map<String, Long> inState = new LinkedHashMap<>();
+            for (int i = 0; i < STATUSES.length; i++) {
+                if (millisInState[i] > 0) {
+                    inState.put(STATUSES[i], millisInState[i]);
+                }
+            }
+            int last = (head + size - 1) % statuses.length;
+            return new ComponentStatistics(component, STATUSES[statuses[last]], size,
+                    Instant.ofEpochMilli(timestamps[head]), flaps, inState);
+        }
+
+        synchronized List<Sample> samples(int count) {
+            int n = Math.min(count, size);
+            List<Sample> samples = new ArrayList<>(n);
+            for (int i = size - n; i < size; i++) {
+                int index = (head + i) % statuses.length;
+                samples.add(new Sample(Instant.ofEpochMilli(timestamps[index]), STATUSES[statuses[index]]));
+            }
+            return samples;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.vaadin.kitchensink.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.Selector.Match;
+import org.springframework.lang.Nullable;
+
+/**
+ * Actuator endpoint exposing the {@link HealthHistory}.
+ * <p>
+ * {@code /actuator/healthhistory} lists the statistics of every component and
+ * {@code /actuator/healthhistory/{component}} adds its samples, oldest first.
+ * Components of composite contributors are addressed by their full path, for
+ * example {@code /actuator/healthhistory/db/primary}.
+ * </p>
+ */
+@Endpoint(id = "healthhistory")
+public class HealthHistoryEndpoint {
+
+    private static final int DEFAULT_SAMPLES = 100;
+
+    private final HealthHistory history;
+
+    public HealthHistoryEndpoint(HealthHistory history) {
+        this.history = history;
+    }
+
+    @ReadOperation
+    public Map<String, HealthHistory.ComponentStatistics> components() {
+        Map<String, HealthHistory.ComponentStatistics> components = new LinkedHashMap<>();
+        for (String component : history.getComponents()) {
+            components.put(component, history.getStatistics(component));
+        }
+        return components;
+    }
+
+    @ReadOperation
+    @Nullable
+    public ComponentHistory component(@Selector(match = Match.ALL_REMAINING) String[] path,
+            @Nullable Integer samples) {
+        String component = String.join("/", path);
+        HealthHistory.ComponentStatistics statistics = history.getStatistics(component);
+        if (statistics == null) {
+            // Answered with 404 by the actuator
+            return null;
+        }
+        return new ComponentHistory(statistics,
+                history.getSamples(component, samples != null ? samples : DEFAULT_SAMPLES));
+    }
+
+    /**
+     * Statistics and recent samples of one component.
+     */
+    public record ComponentHistory(HealthHistory.ComponentStatistics statistics,
+            List<HealthHistory.Sample> samples) {
+    }
+}
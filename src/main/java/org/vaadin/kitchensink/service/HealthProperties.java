@@ -0,0 +1,118 @@
+package org.vaadin.kitchensink.service;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the health dashboard, bound from the
+ * {@code kitchen-sink.health} prefix.
+ */
+@ConfigurationProperties(prefix = "kitchen-sink.health")
+public class HealthProperties {
+
+    /**
+     * How often health indicators are evaluated in the background.
+     */
+    private Duration refreshInterval = Duration.ofSeconds(5);
+
+    /**
+     * How long a single health indicator may run before it is reported as
+     * {@code TIMEOUT}.
+     */
+    private Duration timeout = Duration.ofSeconds(2);
+
+    /**
+     * Maximum number of health indicators evaluated at the same time.
+     */
+    private int threads = 4;
+
+    /**
+     * Number of samples kept per health component, one per refresh interval.
+     */
+    private int historySize = 4096;
+
+    private final View view = new View();
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    public void setHistorySize(int historySize) {
+        this.historySize = historySize;
+    }
+
+    public View getView() {
+        return view;
+    }
+
+    /**
+     * How the health dashboard receives updates.
+     */
+    public static class View {
+
+        /**
+         * Minimum time between updates of an active dashboard that contain no
+         * status change, for example changed details.
+         */
+        private Duration updateInterval = Duration.ofSeconds(30);
+
+        /**
+         * Time without user input after which a visible dashboard is suspended.
+         */
+        private Duration idleTimeout = Duration.ofMinutes(5);
+
+        /**
+         * Longest interval between updates of a suspended dashboard.
+         */
+        private Duration maxBackoff = Duration.ofMinutes(10);
+
+        public Duration getUpdateInterval() {
+            return updateInterval;
+        }
+
+        public void setUpdateInterval(Duration updateInterval) {
+            this.updateInterval = updateInterval;
+        }
+
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+    }
+}
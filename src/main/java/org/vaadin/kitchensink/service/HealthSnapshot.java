@@ -0,0 +1,47 @@
+package org.vaadin.kitchensink.service;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable result of one evaluation of the application's health.
+ *
+ * @param checkedAt
+ *            when the evaluation finished
+ * @param status
+ *            the aggregated status code, for example {@code UP}
+ * @param components
+ *            the individual components in the order reported by the endpoint
+ */
+public record HealthSnapshot(Instant checkedAt, String status, List<ComponentHealth> components) {
+
+    /**
+     * Snapshot used before the first evaluation has finished.
+     */
+    public static final HealthSnapshot UNKNOWN = new HealthSnapshot(Instant.EPOCH, "UNKNOWN", List.of());
+
+    public HealthSnapshot {
+        components = List.copyOf(components);
+    }
+
+    /**
+     * Health of a single component.
+     *
+     * @param name
+     *            the name the component is registered under
+     * @param status
+     *            the status code of the component
+     * @param details
+     *            the details reported by the component
+     */
+    public record ComponentHealth(String name, String status, Map<String, Object> details) {
+
+        public ComponentHealth {
+            // Keeps the reported order and tolerates null values, unlike Map.copyOf
+            details = Collections.unmodifiableMap(new LinkedHashMap<>(details));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.vaadin.kitchensink.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.vaadin.flow.shared.Registration;
+
+/**
+ * Evaluates the application's health once per interval on a background thread
+ * and shares the result with every view.
+ * <p>
+ * Views read {@link #getSnapshot()} or subscribe to new snapshots instead of
+ * invoking the health endpoint themselves, so the cost of health checks does not
+ * depend on how many UIs are open. The indicators run concurrently through the
+ * {@link HealthEvaluationEngine}, so a slow indicator delays a snapshot by at
+ * most the configured timeout.
+ * </p>
+ */
+@Service
+public class HealthSnapshotService implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HealthSnapshotService.class);
+
+    private final HealthEvaluationEngine engine;
+    private final ScheduledExecutorService scheduler;
+    private final List<Consumer<HealthSnapshot>> listeners = new CopyOnWriteArrayList<>();
+    private volatile HealthSnapshot snapshot = HealthSnapshot.UNKNOWN;
+
+    public HealthSnapshotService(HealthEvaluationEngine engine, HealthProperties properties) {
+        this.engine = engine;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "health-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.getRefreshInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the most recent snapshot, or {@link HealthSnapshot#UNKNOWN} before
+     * the first evaluation has finished.
+     */
+    public HealthSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Registers a listener called with every new snapshot on the evaluation thread.
+     * Listeners updating a UI must use {@code UI.access}.
+     */
+    public Registration subscribe(Consumer<HealthSnapshot> listener) {
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    private void refresh() {
+        try {
+            snapshot = engine.evaluate();
+        } catch (RuntimeException e) {
+            // Keep the previous snapshot, the next run may succeed
+            logger.warn("Failed to evaluate application health", e);
+            return;
+        }
+        for (Consumer<HealthSnapshot> listener : listeners) {
+            try {
+                listener.accept(snapshot);
+            } catch (RuntimeException e) {
+                logger.debug("Health snapshot listener failed", e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        listeners.clear();
+    }
+}
@@ -0,0 +1,196 @@
+package org.vaadin.kitchensink.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Heap-based {@link BomModel} built once while the BOM is read. Component
+ * fields are kept in parallel arrays and the dependency graph as sorted index
+ * arrays.
+ */
+final class IndexedBomModel implements BomModel {
+
+    private final String[] bomRefs;
+    private final String[] groups;
+    private final String[] names;
+    private final String[] versions;
+    private final String[] types;
+    private final String[] scopes;
+    private final Map<String, Integer> indexByRef;
+    private final int[][] children;
+    private final int[] topLevel;
+
+    private IndexedBomModel(Builder builder) {
+        int size = builder.names.size();
+        this.bomRefs = builder.bomRefs.toArray(String[]::new);
+        this.groups = builder.groups.toArray(String[]::new);
+        this.names = builder.names.toArray(String[]::new);
+        this.versions = builder.versions.toArray(String[]::new);
+        this.types = builder.types.toArray(String[]::new);
+        this.scopes = builder.scopes.toArray(String[]::new);
+        this.indexByRef = Map.copyOf(builder.indexByRef);
+
+        Comparator<Integer> byName = Comparator.comparing(index -> names[index] != null ? names[index] : "",
+                String.CASE_INSENSITIVE_ORDER);
+        this.children = new int[size][];
+        Arrays.fill(children, new int[0]);
+        List<Integer> listed = new ArrayList<>();
+        if (builder.dependencies.isEmpty()) {
+            // Without a dependency section the tree follows component nesting
+            builder.nested.forEach((parent, nestedChildren) -> children[parent] = sorted(nestedChildren, byName));
+            listed.addAll(builder.topLevelComponents);
+        } else {
+            builder.dependencies.forEach((ref, dependsOn) -> {
+                Integer parent = indexByRef.get(ref);
+                if (parent == null) {
+                    return;
+                }
+                List<Integer> resolved = new ArrayList<>(dependsOn.size());
+                for (String childRef : dependsOn) {
+                    Integer child = indexByRef.get(childRef);
+                    if (child != null) {
+                        resolved.add(child);
+                    }
+                }
+                children[parent] = sorted(resolved, byName);
+                listed.add(parent);
+            });
+        }
+        this.topLevel = sorted(listed, byName);
+    }
+
+    private static int[] sorted(List<Integer> indexes, Comparator<Integer> order) {
+        return indexes.stream().sorted(order).mapToInt(Integer::intValue).toArray();
+    }
+
+    @Override
+    public int size() {
+        return names.length;
+    }
+
+    @Override
+    public String getBomRef(int component) {
+        return bomRefs[component];
+    }
+
+    @Override
+    public String getGroup(int component) {
+        return groups[component];
+    }
+
+    @Override
+    public String getName(int component) {
+        return names[component];
+    }
+
+    @Override
+    public String getVersion(int component) {
+        return versions[component];
+    }
+
+    @Override
+    public String getType(int component) {
+        return types[component];
+    }
+
+    @Override
+    public String getScope(int component) {
+        return scopes[component];
+    }
+
+    @Override
+    public int indexOf(String bomRef) {
+        Integer index = bomRef != null ? indexByRef.get(bomRef) : null;
+        return index != null ? index : -1;
+    }
+
+    @Override
+    public int getChildCount(int component) {
+        return children[component].length;
+    }
+
+    @Override
+    public int getChild(int component, int position) {
+        return children[component][position];
+    }
+
+    @Override
+    public int getTopLevelCount() {
+        return topLevel.length;
+    }
+
+    @Override
+    public int getTopLevel(int position) {
+        return topLevel[position];
+    }
+
+    /**
+     * Collects components and dependencies in the order they are parsed.
+     */
+    static final class Builder {
+
+        private final List<String> bomRefs = new ArrayList<>();
+        private final List<String> groups = new ArrayList<>();
+        private final List<String> names = new ArrayList<>();
+        private final List<String> versions = new ArrayList<>();
+        private final List<String> types = new ArrayList<>();
+        private final List<String> scopes = new ArrayList<>();
+        private final Map<String, Integer> indexByRef = new HashMap<>();
+        private final Map<Integer, List<Integer>> nested = new HashMap<>();
+        private final List<Integer> topLevelComponents = new ArrayList<>();
+        private final Map<String, List<String>> dependencies = new LinkedHashMap<>();
+
+        /**
+         * Reserves the index of a component whose fields are set later with
+         * {@link #setComponent}.
+         *
+         * @param parent
+         *            the index of the component this one is nested in, or
+         *            {@code -1} for a top-level component
+         * @return the index of the component
+         */
+        int addComponent(int parent) {
+            int index = names.size();
+            bomRefs.add(null);
+            groups.add(null);
+            names.add(null);
+            versions.add(null);
+            types.add(null);
+            scopes.add(null);
+            if (parent < 0) {
+                topLevelComponents.add(index);
+            } else {
+                nested.computeIfAbsent(parent, key -> new ArrayList<>()).add(index);
+            }
+            return index;
+        }
+
+        void setComponent(int index, String bomRef, String group, String name, String version, String type,
+                String scope) {
+            bomRefs.set(index, bomRef);
+            groups.set(index, group);
+            names.set(index, name);
+            versions.set(index, version);
+            types.set(index, type);
+            scopes.set(index, scope);
+            if (bomRef != null) {
+                indexByRef.putIfAbsent(bomRef, index);
+            }
+        }
+
+        void addDependency(String ref, List<String> dependsOn) {
+            if (ref != null) {
+                dependencies.computeIfAbsent(ref, key -> new ArrayList<>()).addAll(dependsOn);
+            }
+        }
+
+        IndexedBomModel build() {
+            return new IndexedBomModel(this);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.vaadin.kitchensink.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.filter.TokenFilter;
+
+/**
+ * Token filter including the values at any of several JSON pointers, like
+ * {@link com.fasterxml.jackson.core.filter.JsonPointerBasedFilter} does for a
+ * single one.
+ */
+final class JsonPointerProjection extends TokenFilter {
+
+    private final List<JsonPointer> pointers;
+
+    private JsonPointerProjection(List<JsonPointer> pointers) {
+        this.pointers = pointers;
+    }
+
+    /**
+     * Creates a filter for the given pointers, for example {@code /git/commit/id}.
+     */
+    static TokenFilter of(Collection<String> pointers) {
+        List<JsonPointer> compiled = new ArrayList<>(pointers.size());
+        for (String pointer : pointers) {
+            compiled.add(JsonPointer.compile(pointer));
+        }
+        return forPointers(compiled);
+    }
+
+    private static TokenFilter forPointers(List<JsonPointer> pointers) {
+        if (pointers.isEmpty()) {
+            return null;
+        }
+        for (JsonPointer pointer : pointers) {
+            if (pointer.matches()) {
+                return TokenFilter.INCLUDE_ALL;
+            }
+        }
+        return new JsonPointerProjection(pointers);
+    }
+
+    @Override
+    public TokenFilter includeProperty(String name) {
+        List<JsonPointer> tails = new ArrayList<>(pointers.size());
+        for (JsonPointer pointer : pointers) {
+            JsonPointer tail = pointer.matchProperty(name);
+            if (tail != null) {
+                tails.add(tail);
+            }
+        }
+        return forPointers(tails);
+    }
+
+    @Override
+    public TokenFilter includeElement(int index) {
+        List<JsonPointer> tails = new ArrayList<>(pointers.size());
+        for (JsonPointer pointer : pointers) {
+            JsonPointer tail = pointer.matchElement(index);
+            if (tail != null) {
+                tails.add(tail);
+            }
+        }
+        return forPointers(tails);
+    }
+
+    @Override
+    protected boolean _includeScalar() {
+        // Scalars only reach this filter when they lie outside every pointer
+        return false;
+    }
+}
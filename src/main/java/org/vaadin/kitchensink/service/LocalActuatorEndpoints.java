@@ -0,0 +1,233 @@
+package org.vaadin.kitchensink.service;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.endpoint.web.WebEndpointProperties;
+import org.springframework.boot.actuate.endpoint.InvocationContext;
+import org.springframework.boot.actuate.endpoint.OperationArgumentResolver;
+import org.springframework.boot.actuate.endpoint.ProducibleOperationArgumentResolver;
+import org.springframework.boot.actuate.endpoint.SecurityContext;
+import org.springframework.boot.actuate.endpoint.web.ExposableWebEndpoint;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointHttpMethod;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointsSupplier;
+import org.springframework.boot.actuate.endpoint.web.WebOperation;
+import org.springframework.boot.actuate.endpoint.web.WebServerNamespace;
+import org.springframework.core.env.Environment;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.access.WebInvocationPrivilegeEvaluator;
+import org.springframework.stereotype.Service;
+
+/**
+ * Invokes the web-exposed actuator endpoints of this application directly
+ * instead of over loopback HTTP.
+ * <p>
+ * A URL is local when it addresses a loopback host on the port this application
+ * serves actuator endpoints on. Its path is matched against the same read
+ * operations and exposure rules the HTTP layer uses, and the operation is
+ * invoked with an anonymous security context.
+ * </p>
+ * <p>
+ * A local invocation does not pass the security filter chain, so the URL rules
+ * of the chain are checked for an anonymous user before a URL is resolved. URLs
+ * an unauthenticated HTTP request may not read, such as
+ * {@code /actuator/httpexchanges}, are not resolved and go over HTTP, where the
+ * chain applies.
+ * </p>
+ */
+@Service
+public class LocalActuatorEndpoints {
+
+    private static final Authentication ANONYMOUS = new AnonymousAuthenticationToken("local-actuator",
+            "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+
+    private final ObjectProvider<WebEndpointsSupplier> endpointsSupplier;
+    private final ObjectProvider<WebEndpointProperties> endpointProperties;
+    private final ObjectProvider<WebInvocationPrivilegeEvaluator> privilegeEvaluator;
+    private final Environment environment;
+
+    public LocalActuatorEndpoints(ObjectProvider<WebEndpointsSupplier> endpointsSupplier,
+            ObjectProvider<WebEndpointProperties> endpointProperties,
+            ObjectProvider<WebInvocationPrivilegeEvaluator> privilegeEvaluator, Environment environment) {
+        this.endpointsSupplier = endpointsSupplier;
+        this.endpointProperties = endpointProperties;
+        this.privilegeEvaluator = privilegeEvaluator;
+        this.environment = environment;
+    }
+
+    /**
+     * Finds the local read operation a URL addresses.
+     *
+     * @return the bound invocation, or {@code null} if the URL is not served by
+     *         this application or an unauthenticated request may not read it
+     */
+    public Invocation resolve(URI uri) {
+        WebEndpointsSupplier supplier = endpointsSupplier.getIfUnique();
+        String path = uri.getRawPath();
+        if (supplier == null || path == null || !isLocal(uri)) {
+            return null;
+        }
+        String contextPath = environment.getProperty("server.servlet.context-path", "");
+        String prefix = contextPath + basePath() + "/";
+        if (!path.startsWith(prefix) || !isPermittedAnonymously(contextPath, path.substring(contextPath.length()))) {
+            return null;
+        }
+        String[] segments = Arrays.stream(path.substring(prefix.length()).split("/"))
+                .filter(segment -> !segment.isEmpty())
+                .map(segment -> URLDecoder.decode(segment, StandardCharsets.UTF_8))
+                .toArray(String[]::new);
+        for (ExposableWebEndpoint endpoint : supplier.getEndpoints()) {
+            for (WebOperation operation : endpoint.getOperations()) {
+                if (operation.getRequestPredicate().getHttpMethod() != WebEndpointHttpMethod.GET) {
+                    continue;
+                }
+                Map<String, Object> arguments = match(operation.getRequestPredicate().getPath(), segments);
+                if (arguments != null) {
+                    addQueryParameters(uri, arguments);
+                    return new Invocation(operation, arguments);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the actuator base URL of this application on the loopback
+     * interface, or {@code null} before the web server has started.
+     */
+    public String getBaseUrl() {
+        Integer port = localPort();
+        if (port == null) {
+            return null;
+        }
+        return "http://localhost:" + port + environment.getProperty("server.servlet.context-path", "") + basePath();
+    }
+
+    private Integer localPort() {
+        return environment.getProperty("local.management.port", Integer.class,
+                environment.getProperty("local.server.port", Integer.class));
+    }
+
+    private boolean isPermittedAnonymously(String contextPath, String path) {
+        WebInvocationPrivilegeEvaluator evaluator = privilegeEvaluator.getIfUnique();
+        return evaluator == null || evaluator.isAllowed(contextPath, path, "GET", ANONYMOUS);
+    }
+
+    private boolean isLocal(URI uri) {
+        Integer port = localPort();
+        if (port == null || uri.getHost() == null) {
+            return false;
+        }
+        int uriPort = uri.getPort() != -1 ? uri.getPort() : "https".equals(uri.getScheme()) ? 443 : 80;
+        return uriPort == port && isLoopback(uri.getHost());
+    }
+
+    private static boolean isLoopback(String host) {
+        if ("localhost".equalsIgnoreCase(host)) {
+            return true;
+        }
+        // Only resolve literal addresses, never look up host names
+        if (!host.matches("[0-9.]+|\\[?[0-9a-fA-F:]+]?")) {
+            return false;
+        }
+        try {
+            return InetAddress.getByName(host).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    private String basePath() {
+        WebEndpointProperties properties = endpointProperties.getIfAvailable();
+        return properties != null ? properties.getBasePath() : "/actuator";
+    }
+
+    /**
+     * Matches path segments against an operation path such as
+     * {@code env/{toMatch}} or {@code health/{*path}}.
+     */
+    private static Map<String, Object> match(String pattern, String[] segments) {
+        String[] parts = pattern.split("/");
+        Map<String, Object> arguments = new LinkedHashMap<>();
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i];
+            if (part.startsWith("{*") && part.endsWith("}")) {
+                arguments.put(part.substring(2, part.length() - 1),
+                        Arrays.copyOfRange(segments, Math.min(i, segments.length), segments.length));
+                return arguments;
+            }
+            if (i >= segments.length) {
+                return null;
+            }
+            if (part.startsWith("{") && part.endsWith("}")) {
+                arguments.put(part.substring(1, part.length() - 1), segments[i]);
+            } else if (!part.equals(segments[i])) {
+                return null;
+            }
+        }
+        return parts.length == segments.length ? arguments : null;
+    }
+
+    private static void addQueryParameters(URI uri, Map<String, Object> arguments) {
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return;
+        }
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? parameter : parameter.substring(0, equals),
+                    StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8);
+            arguments.putIfAbsent(name, value);
+        }
+    }
+
+    /**
+     * A read operation bound to the arguments taken from a URL.
+     */
+    public static final class Invocation {
+
+        private final WebOperation operation;
+        private final Map<String, Object> arguments;
+
+        private Invocation(WebOperation operation, Map<String, Object> arguments) {
+            this.operation = operation;
+            this.arguments = arguments;
+        }
+
+        /**
+         * Invokes the operation.
+         *
+         * @return the response body
+         * @throws ActuatorException
+         *             if the operation answers with an error status or no body
+         */
+        public Object invoke() {
+            InvocationContext context = new InvocationContext(SecurityContext.NONE, arguments,
+                    new ProducibleOperationArgumentResolver(() -> List.of("application/json")),
+                    OperationArgumentResolver.of(WebServerNamespace.class, () -> WebServerNamespace.SERVER));
+            Object result = operation.invoke(context);
+            int status = 200;
+            if (result instanceof WebEndpointResponse<?> response) {
+                status = response.getStatus();
+                result = response.getBody();
+            }
+            if (status >= 300 || result == null) {
+                throw new ActuatorException("Actuator operation " + operation.getId() + " returned HTTP "
+                        + (result == null && status < 300 ? 404 : status));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package org.vaadin.kitchensink.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link BomModel} backed by the binary index written by
+ * {@link BomIndexCompiler}.
+ * <p>
+ * The index is memory-mapped when it is a file on disk and otherwise, as inside
+ * the packaged jar, copied once into a direct buffer. Either way it stays
+ * outside the Java heap and nothing is decoded up front. The string getters
+ * decode on every call; {@link #indexOf(String)} encodes the bom-ref once and
+ * compares it with the UTF-8 bytes of the string table in place.
+ * </p>
+ */
+final class MappedBomModel implements BomModel {
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int topLevelCount;
+    private final int stringOffsets;
+    private final int components;
+    private final int topLevel;
+    private final int edges;
+    private final int refs;
+    private final int refCount;
+    private final int stringBytes;
+
+    private MappedBomModel(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < BomIndexFormat.HEADER_INTS * Integer.BYTES
+                || buffer.getInt(0) != BomIndexFormat.MAGIC) {
+            throw new IOException("Not a bill of materials index");
+        }
+        if (buffer.getInt(4) != BomIndexFormat.VERSION) {
+            throw new IOException("Unsupported bill of materials index version " + buffer.getInt(4));
+        }
+        this.size = buffer.getInt(8);
+        int stringCount = buffer.getInt(12);
+        this.topLevelCount = buffer.getInt(16);
+        int edgeCount = buffer.getInt(20);
+        this.refCount = buffer.getInt(24);
+        int stringByteCount = buffer.getInt(28);
+
+        this.stringOffsets = BomIndexFormat.HEADER_INTS * Integer.BYTES;
+        this.components = stringOffsets + (stringCount + 1) * Integer.BYTES;
+        this.topLevel = components + size * BomIndexFormat.COMPONENT_INTS * Integer.BYTES;
+        this.edges = topLevel + topLevelCount * Integer.BYTES;
+        this.refs = edges + edgeCount * Integer.BYTES;
+        this.stringBytes = refs + refCount * Integer.BYTES;
+        if ((long) stringBytes + stringByteCount != buffer.capacity()) {
+            throw new IOException("Truncated bill of materials index");
+        }
+    }
+
+    /**
+     * Opens the index at the given location.
+     *
+     * @throws IOException
+     *             if it cannot be read or is not a valid index
+     */
+    static MappedBomModel open(URL url) throws IOException {
+        if ("file".equals(url.getProtocol())) {
+            try (FileChannel channel = FileChannel.open(Path.of(url.toURI()), StandardOpenOption.READ)) {
+                return new MappedBomModel(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            } catch (URISyntaxException e) {
+                throw new IOException("Invalid bill of materials index location " + url, e);
+            }
+        }
+        try (InputStream in = url.openStream()) {
+            byte[] bytes = in.readAllBytes();
+            return new MappedBomModel(ByteBuffer.allocateDirect(bytes.length).put(bytes).flip());
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getBomRef(int component) {
+        return string(field(component, BomIndexFormat.BOM_REF));
+    }
+
+    @Override
+    public String getGroup(int component) {
+        return string(field(component, BomIndexFormat.GROUP));
+    }
+
+    @Override
+    public String getName(int component) {
+        return string(field(component, BomIndexFormat.NAME));
+    }
+
+    @Override
+    public String getVersion(int component) {
+        return string(field(component, BomIndexFormat.VERSION_FIELD));
+    }
+
+    @Override
+    public String getType(int component) {
+        return string(field(component, BomIndexFormat.TYPE));
+    }
+
+    @Override
+    public String getScope(int component) {
+        return string(field(component, BomIndexFormat.SCOPE));
+    }
+
+    @Override
+    public int indexOf(String bomRef) {
+        if (bomRef == null) {
+            return -1;
+        }
+        byte[] key = bomRef.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = refCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int component = buffer.getInt(refs + middle * Integer.BYTES);
+            int comparison = compare(field(component, BomIndexFormat.BOM_REF), key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return component;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int getChildCount(int component) {
+        return field(component, BomIndexFormat.EDGE_COUNT);
+    }
+
+    @Override
+    public int getChild(int component, int position) {
+        if (position < 0 || position >= getChildCount(component)) {
+            throw new IndexOutOfBoundsException(position);
+        }
+        return buffer.getInt(edges + (field(component, BomIndexFormat.FIRST_EDGE) + position) * Integer.BYTES);
+    }
+
+    @Override
+    public int getTopLevelCount() {
+        return topLevelCount;
+    }
+
+    @Override
+    public int getTopLevel(int position) {
+        if (position < 0 || position >= topLevelCount) {
+            throw new IndexOutOfBoundsException(position);
+        }
+        return buffer.getInt(topLevel + position * Integer.BYTES);
+    }
+
+    private int field(int component, int field) {
+        if (component < 0 || component >= size) {
+            throw new IndexOutOfBoundsException(component);
+        }
+        return buffer.getInt(components + (component * BomIndexFormat.COMPONENT_INTS + field) * Integer.BYTES);
+    }
+
+    /**
+     * Compares a string of the table with the given UTF-8 bytes, unsigned and
+     * byte by byte, as the compiler sorted the bom-refs.
+     */
+    private int compare(int index, byte[] key) {
+        int start = stringBytes + buffer.getInt(stringOffsets + index * Integer.BYTES);
+        int length = stringBytes + buffer.getInt(stringOffsets + (index + 1) * Integer.BYTES) - start;
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int difference = Byte.toUnsignedInt(buffer.get(start + i)) - Byte.toUnsignedInt(key[i]);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - key.length;
+    }
+
+    private String string(int index) {
+        if (index < 0) {
+            return null;
+        }
+        int start = buffer.getInt(stringOffsets + index * Integer.BYTES);
+        int end = buffer.getInt(stringOffsets + (index + 1) * Integer.BYTES);
+        byte[] bytes = new byte[end - start];
+        buffer.get(stringBytes + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,88 @@
+package org.vaadin.kitchensink.views.shared;
+
+import org.vaadin.kitchensink.service.ActuatorService;
+import org.vaadin.kitchensink.service.ActuatorService.CacheEntry;
+import org.vaadin.kitchensink.service.ActuatorService.CacheStatistics;
+import org.vaadin.lineawesome.LineAwesomeIcon;
+import org.vaadin.lineawesome.LineAwesomeIconUrl;
+
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.html.H2;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.orderedlayout.FlexComponent;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.router.Menu;
+import com.vaadin.flow.router.PageTitle;
+import com.vaadin.flow.router.Route;
+import com.vaadin.flow.server.auth.AnonymousAllowed;
+
+/**
+ * View that displays the statistics and contents of the actuator response
+ * cache.
+ */
+@AnonymousAllowed
+@PageTitle("Actuator Cache")
+@Route(value = "actuator-cache")
+@Menu(order = 21, icon = LineAwesomeIconUrl.DATABASE_SOLID)
+public class ActuatorCacheView extends VerticalLayout {
+
+    private final transient ActuatorService actuatorService;
+    private final Span statistics = new Span();
+    private final Grid<CacheEntry> grid;
+
+    public ActuatorCacheView(ActuatorService actuatorService) {
+        this.actuatorService = actuatorService;
+        setSpacing(true);
+        setPadding(true);
+        setSizeFull();
+
+        add(new H2("Actuator Cache"));
+
+        Button refreshButton = new Button("Refresh", LineAwesomeIcon.SYNC_SOLID.create());
+        refreshButton.addClickListener(e -> refresh());
+        Button clearButton = new Button("Clear", LineAwesomeIcon.TRASH_SOLID.create());
+        clearButton.addClickListener(e -> {
+            actuatorService.clearCache();
+            refresh();
+        });
+
+        HorizontalLayout toolbar = new HorizontalLayout(refreshButton, clearButton, statistics);
+        toolbar.setDefaultVerticalComponentAlignment(FlexComponent.Alignment.CENTER);
+
+        grid = new Grid<>();
+        grid.setSizeFull();
+        grid.addColumn(CacheEntry::url)
+                .setHeader("URL")
+                .setSortable(true)
+                .setFlexGrow(1);
+        grid.addColumn(CacheEntry::type)
+                .setHeader("Type")
+                .setAutoWidth(true);
+        grid.addColumn(entry -> entry.expiresIn().isNegative()
+                ? "Expired"
+                : String.format("%.1f s", entry.expiresIn().toMillis() / 1000.0))
+                .setHeader("Expires in")
+                .setComparator(CacheEntry::expiresIn)
+                .setAutoWidth(true);
+        grid.addColumn(entry -> entry.revalidatable() ? "Yes" : "No")
+                .setHeader("Revalidatable")
+                .setAutoWidth(true);
+
+        add(toolbar, grid);
+        refresh();
+    }
+
+    private void refresh() {
+        CacheStatistics stats = actuatorService.getCacheStatistics();
+        long requests = stats.hits() + stats.coalesced() + stats.misses();
+        statistics.setText(String.format(
+                "%d entries · %d hits · %d coalesced · %d misses (%.0f%% hit rate) · %d revalidated · %d evicted"
+                        + " · %.1f ms avg load",
+                stats.size(), stats.hits(), stats.coalesced(), stats.misses(),
+                requests == 0 ? 0.0 : 100.0 * stats.hits() / requests,
+                stats.revalidations(), stats.evictions(), stats.averageLoadMillis()));
+        grid.setItems(actuatorService.getCacheEntries());
+    }
+}
@@ -0,0 +1,223 @@
+package org.vaadin.kitchensink.views.shared;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+
+import org.vaadin.kitchensink.service.ActuatorService;
+import org.vaadin.kitchensink.service.ActuatorService.NodeResult;
+import org.vaadin.lineawesome.LineAwesomeIcon;
+import org.vaadin.lineawesome.LineAwesomeIconUrl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.html.H2;
+import com.vaadin.flow.component.html.H3;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.orderedlayout.FlexComponent;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.router.Menu;
+import com.vaadin.flow.router.PageTitle;
+import com.vaadin.flow.router.Route;
+import com.vaadin.flow.server.auth.AnonymousAllowed;
+
+/**
+ * View that compares health, build version and environment of this instance
+ * and the peers configured under {@code kitchen-sink.actuator.cluster.peers},
+ * highlighting values that differ from the majority of nodes.
+ */
+@AnonymousAllowed
+@PageTitle("Cluster")
+@Route(value = "cluster")
+@Menu(order = 22, icon = LineAwesomeIconUrl.SERVER_SOLID)
+public class ClusterView extends VerticalLayout {
+
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {
+    };
+
+    private final transient ActuatorService actuatorService;
+    private final Span summary = new Span();
+    private final Grid<NodeRow> nodeGrid;
+    private final Grid<PropertyRow> environmentGrid;
+
+    /**
+     * One node with its health and build version.
+     */
+    public record NodeRow(String node, String status, String version, long elapsedMillis, String error) {
+    }
+
+    /**
+     * A property whose effective value differs between nodes, with the value per
+     * node or {@code null} where it is not set.
+     */
+    public record PropertyRow(String property, Map<String, String> values) {
+    }
+
+    public ClusterView(ActuatorService actuatorService) {
+        this.actuatorService = actuatorService;
+        setSpacing(true);
+        setPadding(true);
+        setSizeFull();
+
+        add(new H2("Cluster"));
+
+        Button refreshButton = new Button("Refresh", LineAwesomeIcon.SYNC_SOLID.create());
+        refreshButton.addClickListener(e -> refresh());
+        HorizontalLayout toolbar = new HorizontalLayout(refreshButton, summary);
+        toolbar.setDefaultVerticalComponentAlignment(FlexComponent.Alignment.CENTER);
+
+        nodeGrid = new Grid<>();
+        nodeGrid.setAllRowsVisible(true);
+
+        environmentGrid = new Grid<>();
+        environmentGrid.setSizeFull();
+
+        add(toolbar, nodeGrid, new H3("Environment differences"), environmentGrid);
+        expand(environmentGrid);
+        refresh();
+    }
+
+    private void refresh() {
+        List<String> nodes = actuatorService.getClusterNodes();
+        summary.setText("Querying " + nodes.size() + " nodes…");
+        UI ui = UI.getCurrent();
+        CompletableFuture<List<NodeResult<Map<String, Object>>>> health =
+                actuatorService.getClusterData("/health", JSON_OBJECT);
+        CompletableFuture<List<NodeResult<Map<String, Object>>>> info =
+                actuatorService.getClusterData("/info", JSON_OBJECT);
+        CompletableFuture<List<NodeResult<Map<String, Object>>>> env =
+                actuatorService.getClusterData("/env", JSON_OBJECT);
+        CompletableFuture.allOf(health, info, env).thenRun(() -> ui.access(
+                () -> show(nodes, health.join(), info.join(), env.join())));
+    }
+
+    private void show(List<String> nodes, List<NodeResult<Map<String, Object>>> health,
+            List<NodeResult<Map<String, Object>>> info, List<NodeResult<Map<String, Object>>> env) {
+        List<NodeRow> rows = new ArrayList<>();
+        for (int i = 0; i < health.size(); i++) {
+            NodeResult<Map<String, Object>> nodeHealth = health.get(i);
+            NodeResult<Map<String, Object>> nodeInfo = info.get(i);
+            String status = nodeHealth.isSuccess() ? String.valueOf(nodeHealth.value().get("status")) : "UNREACHABLE";
+            String version = nodeInfo.isSuccess() ? stringAt(nodeInfo.value(), "build", "version") : null;
+            rows.add(new NodeRow(nodeHealth.node(), status, version, nodeHealth.elapsedMillis(),
+                    nodeHealth.isSuccess() ? nodeInfo.error() : nodeHealth.error()));
+        }
+        // Nodes that did not answer have no say in the version
+        String majorityVersion = majority(info.stream().filter(NodeResult::isSuccess)
+                .map(nodeInfo -> stringAt(nodeInfo.value(), "build", "version")).toList());
+
+        nodeGrid.removeAllColumns();
+        nodeGrid.addColumn(NodeRow::node).setHeader("Node").setFlexGrow(1);
+        nodeGrid.addComponentColumn(row -> cell(row.status(), !"UP".equals(row.status())))
+                .setHeader("Status").setAutoWidth(true);
+        nodeGrid.addComponentColumn(row -> cell(row.version() != null ? row.version() : "—",
+                !Objects.equals(row.version(), majorityVersion)))
+                .setHeader("Version").setAutoWidth(true);
+        nodeGrid.addColumn(row -> row.elapsedMillis() + " ms").setHeader("Response time").setAutoWidth(true);
+        nodeGrid.addColumn(row -> row.error() != null ? row.error() : "").setHeader("Error").setAutoWidth(true);
+        nodeGrid.setItems(rows);
+
+        List<PropertyRow> differences = environmentDifferences(env);
+        environmentGrid.removeAllColumns();
+        environmentGrid.addColumn(PropertyRow::property).setHeader("Property").setAutoWidth(true).setFrozen(true);
+        for (NodeResult<Map<String, Object>> nodeEnv : env) {
+            if (!nodeEnv.isSuccess()) {
+                continue;
+            }
+            String node = nodeEnv.node();
+            environmentGrid.addComponentColumn(row -> {
+                String value = row.values().get(node);
+                return cell(value != null ? value : "(not set)",
+                        !Objects.equals(value, majority(row.values().values())));
+            }).setHeader(node).setAutoWidth(true);
+        }
+        environmentGrid.setItems(differences);
+
+        long failed = rows.stream().filter(row -> row.error() != null).count();
+        summary.setText(nodes.size() + " nodes, " + failed + " with errors, "
+                + (env.stream().anyMatch(NodeResult::isSuccess) ? differences.size() + " differing properties"
+                        : "environment not exposed"));
+    }
+
+    /**
+     * Flattens each node's property sources into effective values, where the
+     * first source defining a property wins, and keeps the properties that are
+     * not the same on every node that answered.
+     */
+    private static List<PropertyRow> environmentDifferences(List<NodeResult<Map<String, Object>>> env) {
+        Map<String, Map<String, String>> effective = new LinkedHashMap<>();
+        for (NodeResult<Map<String, Object>> nodeEnv : env) {
+            if (!nodeEnv.isSuccess()) {
+                continue;
+            }
+            Map<String, String> values = new HashMap<>();
+            if (nodeEnv.value().get("propertySources") instanceof List<?> sources) {
+                for (Object source : sources) {
+                    if (source instanceof Map<?, ?> sourceMap
+                            && sourceMap.get("properties") instanceof Map<?, ?> properties) {
+                        properties.forEach((name, property) -> values.putIfAbsent(String.valueOf(name),
+                                property instanceof Map<?, ?> propertyMap
+                                        ? String.valueOf(propertyMap.get("value"))
+                                        : String.valueOf(property)));
+                    }
+                }
+            }
+            effective.put(nodeEnv.node(), values);
+        }
+        TreeSet<String> names = new TreeSet<>();
+        effective.values().forEach(values -> names.addAll(values.keySet()));
+        List<PropertyRow> differences = new ArrayList<>();
+        for (String name : names) {
+            Map<String, String> values = new TreeMap<>();
+            effective.forEach((node, nodeValues) -> values.put(node, nodeValues.get(name)));
+            if (values.values().stream().distinct().count() > 1) {
+                differences.add(new PropertyRow(name, values));
+            }
+        }
+        return differences;
+    }
+
+    private static String stringAt(Map<String, Object> json, String... path) {
+        Object current = json;
+        for (String key : path) {
+            if (!(current instanceof Map<?, ?> map)) {
+                return null;
+            }
+            current = map.get(key);
+        }
+        return current != null ? current.toString() : null;
+    }
+
+    /**
+     * Returns the most common value. A missing value is a vote of its own, so a
+     * property set on a single node only marks that node, and {@code null} is
+     * returned when most nodes do not set it.
+     */
+    private static String majority(Collection<String> values) {
+        Map<Optional<String>, Long> counts = new HashMap<>();
+        values.forEach(value -> counts.merge(Optional.ofNullable(value), 1L, Long::sum));
+        return counts.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .flatMap(Map.Entry::getKey)
+                .orElse(null);
+    }
+
+    private static Span cell(String text, boolean outlier) {
+        Span span = new Span(text);
+        if (outlier) {
+            span.getStyle().set("color", "var(--lumo-error-text-color)").set("font-weight", "600");
+        }
+        return span;
+    }
+}
@@ -0,0 +1,139 @@
+package org.vaadin.kitchensink.views.shared;
+
+import java.util.BitSet;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.vaadin.kitchensink.service.BomModel;
+import org.vaadin.kitchensink.service.BomSearchIndex;
+import org.vaadin.kitchensink.service.BomSearchIndex.SearchResult;
+import org.vaadin.kitchensink.views.shared.DependenciesView.DependencyInfo;
+
+import com.vaadin.flow.data.provider.hierarchy.AbstractBackEndHierarchicalDataProvider;
+import com.vaadin.flow.data.provider.hierarchy.HierarchicalQuery;
+
+/**
+ * Lazy hierarchical data provider over the shared {@link BomModel}.
+ * <p>
+ * Rows are created only for the ranges the TreeGrid requests, and children are
+ * counted and fetched only when their parent is expanded, so a view holds its
+ * visible rows rather than the whole dependency tree. A component that already
+ * appears among its own ancestors is shown without children.
+ * </p>
+ * <p>
+ * A filter is resolved once through the {@link BomSearchIndex} into the
+ * matching components and every component a match is reachable from; fetching
+ * then only tests those sets, so matches are found at any depth. The index is
+ * only requested when the first non-empty filter is set, so browsing the tree
+ * never builds it.
+ * </p>
+ */
+class DependencyDataProvider extends AbstractBackEndHierarchicalDataProvider<DependencyInfo, Void> {
+
+    private static final String UNKNOWN = "Unknown";
+
+    private final transient Supplier<BomSearchIndex> searchIndex;
+    private final transient BomModel bom;
+    private transient SearchResult filter;
+    private transient int[] filteredRoots;
+
+    DependencyDataProvider(BomModel bom, Supplier<BomSearchIndex> searchIndex) {
+        this.bom = bom;
+        this.searchIndex = searchIndex;
+    }
+
+    /**
+     * Shows only the paths that lead to components whose name, group or version
+     * contains the given text, and everything below a matching component.
+     *
+     * @param text
+     *            the text to look for, or {@code null} or blank to show all
+     */
+    void setFilter(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            filter = null;
+            filteredRoots = null;
+        } else {
+            filter = searchIndex.get().search(text.trim());
+            BitSet paths = filter.paths();
+            filteredRoots = IntStream.range(0, bom.getTopLevelCount())
+                    .map(bom::getTopLevel)
+                    .filter(paths::get)
+                    .toArray();
+        }
+        refreshAll();
+    }
+
+    @Override
+    protected Stream<DependencyInfo> fetchChildrenFromBackEnd(HierarchicalQuery<DependencyInfo, Void> query) {
+        DependencyInfo parent = query.getParent();
+        int[] visible = visibleChildren(parent);
+        int count = visible != null ? visible.length : childCount(parent);
+        int end = (int) Math.min(count, (long) query.getOffset() + query.getLimit());
+        return IntStream.range(Math.min(query.getOffset(), end), end)
+                .mapToObj(position -> createDependencyInfo(parent,
+                        visible != null ? visible[position] : child(parent, position)));
+    }
+
+    @Override
+    public int getChildCount(HierarchicalQuery<DependencyInfo, Void> query) {
+        int[] visible = visibleChildren(query.getParent());
+        return visible != null ? visible.length : childCount(query.getParent());
+    }
+
+    @Override
+    public boolean hasChildren(DependencyInfo item) {
+        if (item.isRepeated()) {
+            return false;
+        }
+        int[] visible = visibleChildren(item);
+        return visible != null ? visible.length > 0 : bom.getChildCount(item.getComponent()) > 0;
+    }
+
+    /**
+     * Returns the filtered children of a node, or {@code null} if all of its
+     * children are shown.
+     */
+    private int[] visibleChildren(DependencyInfo parent) {
+        if (filter == null) {
+            return null;
+        }
+        if (parent == null) {
+            return filteredRoots;
+        }
+        for (DependencyInfo row = parent; row != null; row = row.getParent()) {
+            if (filter.matches().get(row.getComponent())) {
+                return null;
+            }
+        }
+        int component = parent.getComponent();
+        BitSet paths = filter.paths();
+        return IntStream.range(0, bom.getChildCount(component))
+                .map(position -> bom.getChild(component, position))
+                .filter(paths::get)
+                .toArray();
+    }
+
+    private int childCount(DependencyInfo parent) {
+        return parent == null ? bom.getTopLevelCount() : bom.getChildCount(parent.getComponent());
+    }
+
+    private int child(DependencyInfo parent, int position) {
+        return parent == null ? bom.getTopLevel(position) : bom.getChild(parent.getComponent(), position);
+    }
+
+    private DependencyInfo createDependencyInfo(DependencyInfo parent, int component) {
+        return new DependencyInfo(parent, component,
+            orUnknown(bom.getName(component)),
+            orUnknown(bom.getGroup(component)),
+            orUnknown(bom.getVersion(component)),
+            orUnknown(bom.getType(component)),
+            orUnknown(bom.getScope(component))
+        );
+    }
+
+    private static String orUnknown(String value) {
+        return value != null ? value : UNKNOWN;
+    }
+}
@@ -1,21 +1,29 @@
 package org.vaadin.kitchensink.views.shared;
 
-import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
-import org.springframework.boot.actuate.health.Health;
-import org.springframework.boot.actuate.health.HealthComponent;
-import org.springframework.boot.actuate.health.HealthEndpoint;
-import org.springframework.boot.actuate.health.CompositeHealth;
+import org.vaadin.kitchensink.service.DashboardActivity;
+import org.vaadin.kitchensink.service.HealthHistory;
+import org.vaadin.kitchensink.service.HealthProperties;
+import org.vaadin.kitchensink.service.HealthSnapshot;
+import org.vaadin.kitchensink.service.HealthSnapshotService;
 import org.vaadin.lineawesome.LineAwesomeIconUrl;
 
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.ClientCallable;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.dataview.GridListDataView;
+import com.vaadin.flow.component.Html;
 import com.vaadin.flow.component.html.H1;
 import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.orderedlayout.FlexComponent;
@@ -30,6 +38,7 @@ import com.vaadin.flow.router.Menu;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.server.auth.AnonymousAllowed;
+import com.vaadin.flow.shared.Registration;
 
 @AnonymousAllowed
 @PageTitle("Application Health")
@@ -39,16 +48,61 @@ public class HealthView extends VerticalLayout {
 
     private static final DateTimeFormatter TIMESTAMP_FORMATTER =
             DateTimeFormatter.ofPattern("MMM dd, yyyy 'at' HH:mm:ss");
-
-    private final transient HealthEndpoint healthEndpoint;
+    private static final int SPARKLINE_SAMPLES = 60;
+
+    /**
+     * Reports to the server whether the tab is hidden or has been idle for $0
+     * milliseconds. Listeners remove themselves once the view has been detached.
+     */
+    private static final String ACTIVITY_SCRIPT = """
+            const view = this;
+            const idleMillis = $0;
+            let lastInput = Date.now();
+            let suspended = false;
+            const report = value => {
+                if (value !== suspended) {
+                    suspended = value;
+                    view.$server.setSuspended(value);
+                }
+            };
+            const onInput = () => {
+                lastInput = Date.now();
+                if (suspended && !document.hidden) {
+                    report(false);
+                }
+            };
+            const events = ['pointerdown', 'pointermove', 'keydown', 'wheel', 'focus', 'visibilitychange'];
+            const check = setInterval(() => {
+                if (!view.isConnected) {
+                    clearInterval(check);
+                    events.forEach(type => window.removeEventListener(type, onInput, true));
+                    return;
+                }
+                report(document.hidden || Date.now() - lastInput > idleMillis);
+            }, 10000);
+            events.forEach(type => window.addEventListener(type, onInput, { capture: true, passive: true }));
+            """;
+
+    private final transient HealthSnapshotService healthSnapshotService;
+    private final transient HealthHistory healthHistory;
+    private final transient DashboardActivity dashboardActivity;
+    private final RefreshSchedule refreshSchedule;
+    private final long idleTimeoutMillis;
     private final Grid<HealthComponentEntry> grid;
     private final ListDataProvider<HealthComponentEntry> dataProvider;
+    private final GridListDataView<HealthComponentEntry> listDataView;
+    private final Map<String, HealthComponentEntry> entriesByName = new HashMap<>();
+    private final Map<String, Html> sparklines = new HashMap<>();
+    private final Map<String, String> sparklineContents = new HashMap<>();
+    private final H1 header;
     private final Span timestamp;
+    private volatile HealthSnapshot shownSnapshot;
+    private Registration snapshotSubscription;
 
     public static class HealthComponentEntry {
         private final String name;
-        private final String status;
-        private final Map<String, Object> details;
+        private String status;
+        private Map<String, Object> details;
 
         public HealthComponentEntry(String name, String status, Map<String, Object> details) {
             this.name = name;
@@ -68,6 +122,20 @@ public class HealthView extends VerticalLayout {
             return details;
         }
 
+        /**
+         * Takes over the status and details of a newer evaluation.
+         *
+         * @return {@code true} if anything shown in the row changed
+         */
+        boolean update(String status, Map<String, Object> details) {
+            if (this.status.equals(status) && this.details.equals(details)) {
+                return false;
+            }
+            this.status = status;
+            this.details = details;
+            return true;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
@@ -99,17 +167,20 @@ public class HealthView extends VerticalLayout {
         }
     }
 
-    public HealthView(HealthEndpoint healthEndpoint) {
-        this.healthEndpoint = healthEndpoint;
+    public HealthView(HealthSnapshotService healthSnapshotService, HealthHistory healthHistory,
+            DashboardActivity dashboardActivity, HealthProperties properties) {
+        this.healthSnapshotService = healthSnapshotService;
+        this.healthHistory = healthHistory;
+        this.dashboardActivity = dashboardActivity;
+        this.refreshSchedule = new RefreshSchedule(properties.getView().getUpdateInterval(),
+                properties.getView().getMaxBackoff());
+        this.idleTimeoutMillis = properties.getView().getIdleTimeout().toMillis();
         setSpacing(true);
         setPadding(true);
         setSizeFull();
 
-        HealthComponent overall = healthEndpoint.health();
-        H1 header = new H1("Overall Status: " + overall.getStatus());
-
-        LocalDateTime now = LocalDateTime.ofInstant(Instant.now(), ZoneId.systemDefault());
-        timestamp = new Span("Checked at: " + now.format(TIMESTAMP_FORMATTER));
+        header = new H1();
+        timestamp = new Span();
 
         // Add progress bar for refresh indication
         ProgressBar progressBar = new ProgressBar();
@@ -127,6 +198,7 @@ public class HealthView extends VerticalLayout {
         // Build the grid with item details renderer
         grid = new Grid<>(HealthComponentEntry.class, false);
         grid.setDataProvider(dataProvider);
+        listDataView = grid.getListDataView();
 
         // Add chevron icon column
         grid.addComponentColumn(entry -> {
@@ -143,6 +215,14 @@ public class HealthView extends VerticalLayout {
         grid.addColumn(HealthComponentEntry::getStatus)
                 .setHeader("Status")
                 .setAutoWidth(true);
+        // The same sparkline instance is reused for a row and updated in place
+        grid.addComponentColumn(entry -> sparklines.computeIfAbsent(entry.getName(), name -> {
+            String content = createSparkline(name);
+            sparklineContents.put(name, content);
+            return new Html(content);
+        }))
+                .setHeader("History")
+                .setAutoWidth(true);
 
         // Set up item details renderer with ComponentRenderer
         grid.setItemDetailsRenderer(new ComponentRenderer<>(this::createDetailsRenderer));
@@ -157,13 +237,101 @@ public class HealthView extends VerticalLayout {
         grid.setSizeFull();
         add(grid);
         expand(grid);
+    }
 
-        // Initial load
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        UI ui = attachEvent.getUI();
+        refreshSchedule.resume(System.nanoTime());
+        dashboardActivity.viewAttached();
         refreshData();
 
-        // Poll every 5 seconds
-        UI.getCurrent().setPollInterval(5_000);
-        UI.getCurrent().addPollListener(event -> refreshData());
+        // Updates are pushed instead of polled; status changes go out right away
+        snapshotSubscription = healthSnapshotService.subscribe(snapshot -> {
+            if (refreshSchedule.shouldPush(hasStatusChange(snapshot), System.nanoTime())) {
+                ui.access(this::refreshData);
+            }
+        });
+        getElement().executeJs(ACTIVITY_SCRIPT, idleTimeoutMillis);
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        if (snapshotSubscription != null) {
+            snapshotSubscription.remove();
+            snapshotSubscription = null;
+        }
+        dashboardActivity.viewDetached(refreshSchedule.isSuspended());
+    }
+
+    /**
+     * Called by the browser when the tab becomes hidden or idle, and again as soon
+     * as it is visible and used.
+     */
+    @ClientCallable
+    private void setSuspended(boolean suspended) {
+        if (suspended == refreshSchedule.isSuspended()) {
+            return;
+        }
+        if (suspended) {
+            refreshSchedule.suspend(System.nanoTime());
+            dashboardActivity.viewSuspended();
+        } else {
+            refreshSchedule.resume(System.nanoTime());
+            dashboardActivity.viewResumed();
+            refreshData();
+        }
+    }
+
+    private boolean hasStatusChange(HealthSnapshot snapshot) {
+        HealthSnapshot shown = shownSnapshot;
+        if (shown == null || !shown.status().equals(snapshot.status())
+                || shown.components().size() != snapshot.components().size()) {
+            return true;
+        }
+        // Components are reported in registry order, which rarely changes
+        for (int i = 0; i < snapshot.components().size(); i++) {
+            HealthSnapshot.ComponentHealth component = snapshot.components().get(i);
+            HealthSnapshot.ComponentHealth previous = shown.components().get(i);
+            if (!component.name().equals(previous.name()) || !component.status().equals(previous.status())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String createSparkline(String component) {
+        List<HealthHistory.Sample> samples = healthHistory.getSamples(component, SPARKLINE_SAMPLES);
+        StringBuilder svg = new StringBuilder("<svg xmlns='http://www.w3.org/2000/svg' width='")
+                .append(SPARKLINE_SAMPLES * 3).append("' height='16'>");
+        HealthHistory.ComponentStatistics statistics = healthHistory.getStatistics(component);
+        if (statistics != null) {
+            long total = statistics.millisInState().values().stream().mapToLong(Long::longValue).sum();
+            svg.append("<title>").append(statistics.flaps()).append(" flaps");
+            // Nothing has accumulated yet after a single sample
+            if (total > 0) {
+                statistics.millisInState().forEach((status, millis) -> svg.append(", ").append(status)
+                        .append(' ').append(String.format("%.1f%%", 100.0 * millis / total)));
+            }
+            svg.append("</title>");
+        }
+        // Right-aligned, so the newest check is always the last bar
+        int x = (SPARKLINE_SAMPLES - samples.size()) * 3;
+        for (HealthHistory.Sample sample : samples) {
+            svg.append("<rect x='").append(x).append("' y='2' width='2' height='12' fill='")
+                    .append(sparklineColor(sample.status())).append("'/>");
+            x += 3;
+        }
+        return svg.append("</svg>").toString();
+    }
+
+    private String sparklineColor(String status) {
+        return switch (status) {
+            case "UP" -> "var(--lumo-success-color)";
+            case "DOWN" -> "var(--lumo-error-color)";
+            case "OUT_OF_SERVICE", "TIMEOUT" -> "var(--lumo-warning-color, orange)";
+            default -> "var(--lumo-contrast-30pct)";
+        };
     }
 
     private VerticalLayout createDetailsRenderer(HealthComponentEntry entry) {
@@ -232,44 +400,60 @@ public class HealthView extends VerticalLayout {
     }
 
     private void refreshData() {
-        HealthComponent h = healthEndpoint.health();
-        List<HealthComponentEntry> entries;
-
-        if (h instanceof CompositeHealth compositeHealth) {
-            entries = compositeHealth.getComponents().entrySet().stream()
-                    .filter(e -> e.getValue() instanceof Health)
-                    .map(e -> {
-                        Health sub = (Health) e.getValue();
-                        return new HealthComponentEntry(
-                                e.getKey(),
-                                sub.getStatus().toString(),
-                                sub.getDetails()
-                        );
-                    })
-                    .toList();
-        } else if (h instanceof Health health) {
-            // Single health component
-            entries = List.of(new HealthComponentEntry(
-                    "Application",
-                    health.getStatus().toString(),
-                    health.getDetails()
-            ));
-        } else {
-            // Fallback for unknown health component type
-            entries = List.of(new HealthComponentEntry(
-                    "Application",
-                    h.getStatus().toString(),
-                    Map.of()
-            ));
+        HealthSnapshot snapshot = healthSnapshotService.getSnapshot();
+        if (snapshot == shownSnapshot) {
+            return;
         }
+        shownSnapshot = snapshot;
+
+        // Only touch rows that changed, so unchanged rows and their open details
+        // are not sent to the browser again
+        Set<String> reported = new HashSet<>();
+        HealthComponentEntry previous = null;
+        for (HealthSnapshot.ComponentHealth component : snapshot.components()) {
+            reported.add(component.name());
+            HealthComponentEntry entry = entriesByName.get(component.name());
+            if (entry == null) {
+                entry = new HealthComponentEntry(component.name(), component.status(), component.details());
+                entriesByName.put(entry.getName(), entry);
+                if (previous != null) {
+                    listDataView.addItemAfter(entry, previous);
+                } else if (listDataView.getItemCount() > 0) {
+                    listDataView.addItemBefore(entry, listDataView.getItem(0));
+                } else {
+                    listDataView.addItem(entry);
+                }
+            } else if (entry.update(component.status(), component.details())) {
+                dataProvider.refreshItem(entry);
+            }
+            previous = entry;
+        }
+        entriesByName.values().removeIf(entry -> {
+            if (reported.contains(entry.getName())) {
+                return false;
+            }
+            listDataView.removeItem(entry);
+            sparklines.remove(entry.getName());
+            sparklineContents.remove(entry.getName());
+            return true;
+        });
 
-        // Update data provider items - this should preserve expanded state better
-        dataProvider.getItems().clear();
-        dataProvider.getItems().addAll(entries);
-        dataProvider.refreshAll();
+        // Update sparklines in place without refreshing their rows; once the window
+        // is full, a component with a steady status produces the same content
+        sparklines.forEach((name, sparkline) -> {
+            String content = createSparkline(name);
+            if (!content.equals(sparklineContents.put(name, content))) {
+                sparkline.setHtmlContent(content);
+            }
+        });
 
-        // Update timestamp
-        LocalDateTime now = LocalDateTime.ofInstant(Instant.now(), ZoneId.systemDefault());
-        timestamp.setText("Checked at: " + now.format(TIMESTAMP_FORMATTER));
+        // Update status and timestamp
+        header.setText("Overall Status: " + snapshot.status());
+        if (snapshot == HealthSnapshot.UNKNOWN) {
+            timestamp.setText("Not checked yet");
+        } else {
+            LocalDateTime checkedAt = LocalDateTime.ofInstant(snapshot.checkedAt(), ZoneId.systemDefault());
+            timestamp.setText("Checked at: " + checkedAt.format(TIMESTAMP_FORMATTER));
+        }
     }
 }
@@ -1,30 +1,60 @@
 package org.vaadin.kitchensink.views.shared;
 
+import java.io.OutputStream;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.boot.actuate.web.exchanges.HttpExchange;
-import org.springframework.boot.actuate.web.exchanges.HttpExchangeRepository;
+import org.vaadin.kitchensink.exchanges.CapturedExchange;
+import org.vaadin.kitchensink.exchanges.ExchangeBroadcaster;
+import org.vaadin.kitchensink.exchanges.ExchangeFilter;
+import org.vaadin.kitchensink.exchanges.ExchangeQuery;
+import org.vaadin.kitchensink.exchanges.HttpExchangeExporter;
+import org.vaadin.kitchensink.exchanges.HttpExchangeSampler;
+import org.vaadin.kitchensink.exchanges.HttpExchangeStore;
+import org.vaadin.kitchensink.exchanges.RequestClass;
+import org.vaadin.kitchensink.security.AppRoles;
+import org.vaadin.lineawesome.LineAwesomeIcon;
 import org.vaadin.lineawesome.LineAwesomeIconUrl;
 
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.ClientCallable;
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.DetachEvent;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.checkbox.Checkbox;
+import com.vaadin.flow.component.combobox.ComboBox;
+import com.vaadin.flow.component.datetimepicker.DateTimePicker;
 import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.html.Anchor;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.masterdetaillayout.MasterDetailLayout;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.tabs.Tab;
 import com.vaadin.flow.component.tabs.Tabs;
+import com.vaadin.flow.component.textfield.IntegerField;
+import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import com.vaadin.flow.data.provider.SortDirection;
+import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.Menu;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
+import com.vaadin.flow.server.HttpStatusCode;
 import com.vaadin.flow.server.auth.AnonymousAllowed;
+import com.vaadin.flow.server.streams.DownloadHandler;
+import com.vaadin.flow.spring.security.AuthenticationContext;
 
 @AnonymousAllowed
 @PageTitle("HTTP History")
@@ -35,42 +65,90 @@ public class HttpHistoryView extends VerticalLayout {
     private static final DateTimeFormatter TIME_FORMATTER =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"); // Match HealthView formatting
 
-    public HttpHistoryView(HttpExchangeRepository exchangeRepository) {
+    private static final List<String> METHODS =
+            List.of("GET", "POST", "PUT", "PATCH", "DELETE", "HEAD", "OPTIONS");
+
+    // Beyond this many streamed rows the grid is re-pinned and reads everything from the store again
+    private static final int MAX_LIVE_ROWS = 1000;
+
+    /**
+     * Reports to the server whether the grid $0 is scrolled to its first row. The
+     * listener goes away with the grid element.
+     */
+    private static final String SCROLL_SCRIPT = """
+            const view = this;
+            const grid = $0;
+            let atTop = true;
+            grid.$.table.addEventListener('scroll', () => {
+                const value = grid.$.table.scrollTop === 0;
+                if (value !== atTop) {
+                    atTop = value;
+                    view.$server.setScrolledToTop(value);
+                }
+            }, { passive: true });
+            """;
+
+    private final transient HttpExchangeStore exchangeStore;
+    private final transient HttpExchangeSampler exchangeSampler;
+    private final transient ExchangeBroadcaster exchangeBroadcaster;
+    private final transient HttpExchangeExporter exchangeExporter;
+    private final transient AuthenticationContext authenticationContext;
+    private final Grid<CapturedExchange> grid;
+    private final Span samplingSummary = new Span();
+    private final Button newExchangesButton = new Button();
+    // Exchanges pushed since the grid was last pinned, most recent first, matching the filter
+    private final Deque<CapturedExchange> liveExchanges = new ArrayDeque<>();
+    // Exchanges pushed while the rows were not at the top, held back so the grid does not shift
+    private final Deque<CapturedExchange> pendingExchanges = new ArrayDeque<>();
+
+    private volatile ExchangeFilter filter = ExchangeFilter.NONE;
+    private volatile boolean compressExport;
+    private boolean scrolledToTop = true;
+    private boolean newestFirst = true;
+    // Set when pending exchanges cannot simply be prepended and the grid has to be pinned again
+    private boolean pendingRefresh;
+    private transient ExchangeBroadcaster.Subscription subscription;
+
+    public HttpHistoryView(HttpExchangeStore exchangeStore, HttpExchangeSampler exchangeSampler,
+            ExchangeBroadcaster exchangeBroadcaster, HttpExchangeExporter exchangeExporter,
+            AuthenticationContext authenticationContext) {
+        this.exchangeStore = exchangeStore;
+        this.exchangeSampler = exchangeSampler;
+        this.exchangeBroadcaster = exchangeBroadcaster;
+        this.exchangeExporter = exchangeExporter;
+        this.authenticationContext = authenticationContext;
         setSpacing(true);
         setPadding(true);
         setSizeFull();
 
-        // 1) Fetch HTTP exchanges from repository
-        List<HttpExchange> exchanges = exchangeRepository.findAll();
-        // Create a mutable copy before reversing to avoid UnsupportedOperationException
-        List<HttpExchange> mutableExchanges = new ArrayList<>(exchanges);
-        Collections.reverse(mutableExchanges); // Show most recent first
-        List<HttpExchange> recent = mutableExchanges.stream()
-                .limit(50)
-                .toList();
-
-        // 2) Create the master grid
-        Grid<HttpExchange> grid = new Grid<>();
+        // 1) Create the master grid
+        grid = new Grid<>();
         grid.setSizeFull();
         grid.addColumn(exchange -> formatTimestamp(exchange.getTimestamp()))
                 .setHeader("Time")
+                .setSortProperty(ExchangeQuery.SortField.TIME.name())
                 .setAutoWidth(true);
-        grid.addColumn(exchange -> exchange.getRequest().getMethod())
+        grid.addColumn(CapturedExchange::getMethod)
                 .setHeader("Method")
+                .setSortProperty(ExchangeQuery.SortField.METHOD.name())
                 .setAutoWidth(true);
-        grid.addColumn(exchange -> exchange.getRequest().getUri().getPath())
+        grid.addColumn(CapturedExchange::getPath)
                 .setHeader("URI")
+                .setSortProperty(ExchangeQuery.SortField.PATH.name())
                 .setFlexGrow(1);
-        grid.addColumn(exchange -> exchange.getResponse() != null ?
-                exchange.getResponse().getStatus() : "No Response")
+        grid.addColumn(exchange -> exchange.getStatus() != CapturedExchange.NO_STATUS ?
+                String.valueOf(exchange.getStatus()) : "No Response")
                 .setHeader("Status")
+                .setSortProperty(ExchangeQuery.SortField.STATUS.name())
                 .setAutoWidth(true);
         grid.addColumn(exchange -> exchange.getTimeTaken() != null ?
                 exchange.getTimeTaken().toMillis() + "ms" : "N/A")
                 .setHeader("Duration")
+                .setSortProperty(ExchangeQuery.SortField.DURATION.name())
                 .setAutoWidth(true);
 
-        grid.setItems(recent);
+        // 2) Fetch only the rows the grid is about to show, filtered and sorted by the store
+        grid.setItems(query -> fetch(toSort(query.getSortOrders()), query.getOffset(), query.getLimit()).stream());
 
         // 3) Create MasterDetailLayout
         MasterDetailLayout masterDetailLayout = new MasterDetailLayout();
@@ -78,9 +156,9 @@ public class HttpHistoryView extends VerticalLayout {
         masterDetailLayout.setMaster(grid);
 
         grid.asSingleSelect().addValueChangeListener(e -> {
-           HttpExchange selectedExchange = e.getValue();
+           CapturedExchange selectedExchange = e.getValue();
            if (selectedExchange != null) {
-               Component detailContent = createDetailContent(selectedExchange);
+               Component detailContent = createDetailContent(selectedExchange.getExchange());
                masterDetailLayout.setDetail(detailContent);
            } else {
                // Clear detail view if no selection
@@ -88,7 +166,254 @@ public class HttpHistoryView extends VerticalLayout {
            }
         });
 
-        add(masterDetailLayout);
+        samplingSummary.getStyle().set("color", "var(--lumo-secondary-text-color)");
+        updateSamplingSummary();
+
+        newExchangesButton.setIcon(LineAwesomeIcon.ARROW_UP_SOLID.create());
+        newExchangesButton.setVisible(false);
+        newExchangesButton.addClickListener(e -> {
+            grid.scrollToStart();
+            scrolledToTop = true;
+            showPendingExchanges();
+        });
+
+        add(samplingSummary, createFilterBar());
+        // The same rule as the export endpoint, captured exchanges contain other users' requests
+        if (isAdmin()) {
+            add(createExportBar());
+        }
+        add(newExchangesButton, masterDetailLayout);
+        refresh();
+    }
+
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        UI ui = attachEvent.getUI();
+        scrolledToTop = true;
+        subscription = exchangeBroadcaster.subscribe(
+                (exchanges, skipped) -> ui.access(() -> showNewExchanges(exchanges, skipped)));
+        getElement().executeJs(SCROLL_SCRIPT, grid.getElement());
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        if (subscription != null) {
+            subscription.cancel();
+            subscription = null;
+        }
+    }
+
+    /**
+     * Returns a page in the given order. In the default newest-first order the
+     * streamed exchanges come first, followed by the pinned history from the store.
+     */
+    private List<CapturedExchange> fetch(ExchangeQuery.Sort sort, int offset, int limit) {
+        newestFirst = sort.equals(ExchangeQuery.Sort.NEWEST_FIRST);
+        if (!newestFirst) {
+            return exchangeStore.find(new ExchangeQuery(filter, sort, offset, limit));
+        }
+        List<CapturedExchange> page = new ArrayList<>(limit);
+        liveExchanges.stream().skip(offset).limit(limit).forEach(page::add);
+        if (page.size() < limit) {
+            page.addAll(exchangeStore.find(new ExchangeQuery(filter, sort,
+                    Math.max(0, offset - liveExchanges.size()), limit - page.size())));
+        }
+        return page;
+    }
+
+    /**
+     * Queues exchanges pushed by the broadcaster and shows them right away if the
+     * newest rows are on screen. Otherwise they wait behind a button, so the rows
+     * the user is reading neither move nor get fetched again. If some were skipped
+     * because this client fell behind, the grid is pinned again once they are
+     * shown so that no rows are missing.
+     */
+    private void showNewExchanges(List<CapturedExchange> exchanges, int skipped) {
+        updateSamplingSummary();
+        if (skipped > 0 || liveExchanges.size() + pendingExchanges.size() + exchanges.size() > MAX_LIVE_ROWS) {
+            pendingRefresh = true;
+        }
+        if (!pendingRefresh) {
+            long newestId = !pendingExchanges.isEmpty() ? pendingExchanges.getFirst().getId()
+                    : !liveExchanges.isEmpty() ? liveExchanges.getFirst().getId()
+                    : filter.maxId() != null ? filter.maxId() : Long.MIN_VALUE;
+            ExchangeFilter liveFilter = filter.withMaxId(null);
+            for (int i = exchanges.size() - 1; i >= 0; i--) {
+                CapturedExchange exchange = exchanges.get(i);
+                if (exchange.getId() > newestId && liveFilter.matches(exchange)) {
+                    pendingExchanges.addFirst(exchange);
+                }
+            }
+        }
+        if (scrolledToTop && newestFirst) {
+            showPendingExchanges();
+        } else if (pendingRefresh || !pendingExchanges.isEmpty()) {
+            newExchangesButton.setText(pendingRefresh ? "Show new exchanges"
+                    : "Show " + pendingExchanges.size() + " new exchanges");
+            newExchangesButton.setVisible(true);
+        }
+    }
+
+    private void showPendingExchanges() {
+        if (pendingRefresh || !newestFirst) {
+            refresh();
+        } else if (!pendingExchanges.isEmpty()) {
+            // Pending exchanges are newest first as well, so prepend them oldest first
+            pendingExchanges.descendingIterator().forEachRemaining(liveExchanges::addFirst);
+            pendingExchanges.clear();
+            newExchangesButton.setVisible(false);
+            grid.getDataProvider().refreshAll();
+        }
+    }
+
+    /**
+     * Called by the browser when the grid is scrolled to or away from its first row.
+     */
+    @ClientCallable
+    private void setScrolledToTop(boolean scrolledToTop) {
+        this.scrolledToTop = scrolledToTop;
+        if (scrolledToTop && newestFirst && (pendingRefresh || !pendingExchanges.isEmpty())) {
+            showPendingExchanges();
+        }
+    }
+
+    private HorizontalLayout createFilterBar() {
+        ComboBox<String> methodField = new ComboBox<>("Method", METHODS);
+        methodField.setClearButtonVisible(true);
+
+        TextField pathField = new TextField("Path prefix");
+        pathField.setClearButtonVisible(true);
+        pathField.setPlaceholder("/actuator");
+        pathField.setPrefixComponent(LineAwesomeIcon.SEARCH_SOLID.create());
+        pathField.setValueChangeMode(ValueChangeMode.LAZY);
+
+        ComboBox<Integer> statusField = new ComboBox<>("Status", List.of(1, 2, 3, 4, 5));
+        statusField.setItemLabelGenerator(statusClass -> statusClass + "xx");
+        statusField.setClearButtonVisible(true);
+
+        IntegerField minDurationField = new IntegerField("Min duration (ms)");
+        minDurationField.setClearButtonVisible(true);
+        minDurationField.setMin(0);
+        IntegerField maxDurationField = new IntegerField("Max duration (ms)");
+        maxDurationField.setClearButtonVisible(true);
+        maxDurationField.setMin(0);
+
+        DateTimePicker fromField = new DateTimePicker("From");
+        DateTimePicker toField = new DateTimePicker("To");
+
+        Button refreshButton = new Button("Refresh", LineAwesomeIcon.SYNC_SOLID.create());
+        refreshButton.addClickListener(e -> refresh());
+
+        Runnable applyFilter = () -> {
+            filter = new ExchangeFilter(
+                    methodField.getValue(),
+                    pathField.getValue().isBlank() ? null : pathField.getValue().trim(),
+                    statusField.getValue(),
+                    toDuration(minDurationField.getValue()),
+                    toDuration(maxDurationField.getValue()),
+                    toInstant(fromField.getValue()),
+                    toInstant(toField.getValue()),
+                    null);
+            refresh();
+        };
+        methodField.addValueChangeListener(e -> applyFilter.run());
+        pathField.addValueChangeListener(e -> applyFilter.run());
+        statusField.addValueChangeListener(e -> applyFilter.run());
+        minDurationField.addValueChangeListener(e -> applyFilter.run());
+        maxDurationField.addValueChangeListener(e -> applyFilter.run());
+        fromField.addValueChangeListener(e -> applyFilter.run());
+        toField.addValueChangeListener(e -> applyFilter.run());
+
+        HorizontalLayout filterBar = new HorizontalLayout(methodField, pathField, statusField, minDurationField,
+                maxDurationField, fromField, toField, refreshButton);
+        filterBar.setDefaultVerticalComponentAlignment(Alignment.BASELINE);
+        filterBar.getStyle().set("flex-wrap", "wrap");
+        filterBar.setWidthFull();
+        return filterBar;
+    }
+
+    private HorizontalLayout createExportBar() {
+        Checkbox compressField = new Checkbox("Gzip");
+        compressField.addValueChangeListener(e -> compressExport = e.getValue());
+
+        HorizontalLayout exportBar = new HorizontalLayout(createExportLink(HttpExchangeExporter.Format.NDJSON),
+                createExportLink(HttpExchangeExporter.Format.CSV), compressField);
+        exportBar.setDefaultVerticalComponentAlignment(Alignment.CENTER);
+        return exportBar;
+    }
+
+    /**
+     * Creates a link downloading every stored exchange that matches the current
+     * filter, streamed from the store while the file is written. The download
+     * checks the ADMIN role again, as its URL can be requested without the link.
+     */
+    private Anchor createExportLink(HttpExchangeExporter.Format format) {
+        Anchor link = new Anchor((DownloadHandler) event -> {
+            if (!isAdmin()) {
+                event.getResponse().sendError(HttpStatusCode.FORBIDDEN.getCode(),
+                        "Exporting exchanges requires the " + AppRoles.ADMIN + " role");
+                return;
+            }
+            // Read once, the download runs outside the session lock while the filter may change
+            ExchangeFilter exportFilter = filter.withMaxId(null);
+            boolean gzip = compressExport;
+            event.setFileName(HttpExchangeExporter.fileName(format, gzip));
+            event.setContentType(gzip ? "application/gzip" : format.getContentType());
+            try (OutputStream out = event.getOutputStream()) {
+                exchangeExporter.export(exportFilter, format, gzip, out);
+            }
+        }, "Export " + format.name());
+        link.getElement().setAttribute("download", true);
+        link.addComponentAsFirst(LineAwesomeIcon.DOWNLOAD_SOLID.create());
+        return link;
+    }
+
+    private boolean isAdmin() {
+        return authenticationContext.hasRole(AppRoles.ADMIN);
+    }
+
+    /**
+     * Pins the grid to the exchanges captured so far, so that pages read from the
+     * store do not shift while new traffic is recorded, drops the streamed and
+     * pending rows and reloads the visible page.
+     */
+    private void refresh() {
+        liveExchanges.clear();
+        pendingExchanges.clear();
+        pendingRefresh = false;
+        newExchangesButton.setVisible(false);
+        List<CapturedExchange> newest = exchangeStore.find(
+                new ExchangeQuery(ExchangeFilter.NONE, ExchangeQuery.Sort.NEWEST_FIRST, 0, 1));
+        filter = filter.withMaxId(newest.isEmpty() ? null : newest.get(0).getId());
+        grid.getDataProvider().refreshAll();
+    }
+
+    private ExchangeQuery.Sort toSort(List<QuerySortOrder> sortOrders) {
+        if (sortOrders.isEmpty()) {
+            return ExchangeQuery.Sort.NEWEST_FIRST;
+        }
+        QuerySortOrder sortOrder = sortOrders.get(0);
+        return new ExchangeQuery.Sort(ExchangeQuery.SortField.valueOf(sortOrder.getSorted()),
+                sortOrder.getDirection() == SortDirection.DESCENDING);
+    }
+
+    private static Duration toDuration(Integer millis) {
+        return millis != null ? Duration.ofMillis(millis) : null;
+    }
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant() : null;
+    }
+
+    private void updateSamplingSummary() {
+        samplingSummary.setText(String.format("Recorded: %d sampled, %d errors and slow requests, dropped: %d"
+                + " | Not captured: %d framework internal, %d static, %d application",
+                exchangeSampler.getSampledCount(),
+                exchangeSampler.getAlwaysKeptCount(),
+                exchangeSampler.getDroppedCount(),
+                exchangeSampler.getExcludedCount(RequestClass.FRAMEWORK_INTERNAL),
+                exchangeSampler.getExcludedCount(RequestClass.STATIC),
+                exchangeSampler.getExcludedCount(RequestClass.APPLICATION)));
     }
 
     private Component createDetailContent(HttpExchange exchange) {
@@ -127,10 +452,9 @@ public class HttpHistoryView extends VerticalLayout {
                 headersTab, headers
         );
 
-        // Populate content
+        // Populate content, the header grids are only built once their tab is opened
         populateRequestDetails(request, exchange);
         populateResponseDetails(response, exchange);
-        populateHeadersDetails(headers, exchange);
 
         // Hide all by default, show first tab
         detailViews.values().forEach(c -> c.setVisible(false));
@@ -143,6 +467,9 @@ public class HttpHistoryView extends VerticalLayout {
             if (selectedView != null) {
                 selectedView.setVisible(true);
             }
+            if (evt.getSelectedTab() == headersTab && headers.getChildren().findAny().isEmpty()) {
+                populateHeadersDetails(headers, exchange);
+            }
         });
 
         VerticalLayout detailLayout = new VerticalLayout(tabs, request, response, headers);
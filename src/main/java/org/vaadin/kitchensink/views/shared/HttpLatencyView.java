@@ -0,0 +1,106 @@
+package org.vaadin.kitchensink.views.shared;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import org.vaadin.kitchensink.exchanges.RouteLatencyAggregator;
+import org.vaadin.kitchensink.exchanges.RouteLatencyAggregator.RouteLatency;
+import org.vaadin.lineawesome.LineAwesomeIcon;
+import org.vaadin.lineawesome.LineAwesomeIconUrl;
+
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.combobox.ComboBox;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.html.H2;
+import com.vaadin.flow.component.orderedlayout.FlexComponent;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.router.Menu;
+import com.vaadin.flow.router.PageTitle;
+import com.vaadin.flow.router.Route;
+import com.vaadin.flow.server.auth.AnonymousAllowed;
+
+/**
+ * View that displays latency percentiles of the HTTP requests served per route
+ * over a sliding window.
+ */
+@AnonymousAllowed
+@PageTitle("HTTP Latency")
+@Route(value = "http/latency")
+@Menu(order = 12, icon = LineAwesomeIconUrl.TACHOMETER_ALT_SOLID)
+public class HttpLatencyView extends VerticalLayout {
+
+    private static final List<Duration> WINDOWS =
+            List.of(Duration.ofSeconds(10), Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofMinutes(15));
+
+    private final transient RouteLatencyAggregator latencyAggregator;
+    private final Grid<RouteLatency> grid;
+    private final ComboBox<Duration> windowField;
+
+    public HttpLatencyView(RouteLatencyAggregator latencyAggregator) {
+        this.latencyAggregator = latencyAggregator;
+        setSpacing(true);
+        setPadding(true);
+        setSizeFull();
+
+        add(new H2("HTTP Latency"));
+
+        Duration maxWindow = latencyAggregator.getMaxWindow();
+        List<Duration> windows = WINDOWS.stream()
+                .filter(window -> window.compareTo(maxWindow) <= 0)
+                .toList();
+        windowField = new ComboBox<>("Window", windows.isEmpty() ? List.of(maxWindow) : windows);
+        windowField.setItemLabelGenerator(HttpLatencyView::formatWindow);
+        windowField.setValue(windowField.getListDataView().getItems()
+                .filter(window -> window.equals(Duration.ofMinutes(1)))
+                .findFirst()
+                .orElse(maxWindow));
+        windowField.addValueChangeListener(e -> refresh());
+
+        Button refreshButton = new Button("Refresh", LineAwesomeIcon.SYNC_SOLID.create());
+        refreshButton.addClickListener(e -> refresh());
+
+        HorizontalLayout toolbar = new HorizontalLayout(windowField, refreshButton);
+        toolbar.setDefaultVerticalComponentAlignment(FlexComponent.Alignment.BASELINE);
+
+        grid = new Grid<>();
+        grid.setSizeFull();
+        grid.addColumn(RouteLatency::route)
+                .setHeader("Route")
+                .setSortable(true)
+                .setFlexGrow(1);
+        grid.addColumn(RouteLatency::count)
+                .setHeader("Requests")
+                .setSortable(true)
+                .setAutoWidth(true);
+        addMillisColumn("p50", RouteLatency::p50Millis);
+        addMillisColumn("p90", RouteLatency::p90Millis);
+        addMillisColumn("p99", RouteLatency::p99Millis);
+        addMillisColumn("p99.9", RouteLatency::p999Millis);
+        addMillisColumn("Max", RouteLatency::maxMillis);
+
+        add(toolbar, grid);
+        refresh();
+    }
+
+    private void addMillisColumn(String header, ToDoubleFunction<RouteLatency> value) {
+        grid.addColumn(latency -> String.format("%.1f ms", value.applyAsDouble(latency)))
+                .setHeader(header)
+                .setComparator((a, b) -> Double.compare(value.applyAsDouble(a), value.applyAsDouble(b)))
+                .setAutoWidth(true);
+    }
+
+    private void refresh() {
+        Duration window = windowField.getValue() != null ? windowField.getValue() : latencyAggregator.getMaxWindow();
+        grid.setItems(latencyAggregator.snapshot(window));
+    }
+
+    private static String formatWindow(Duration window) {
+        if (window.toSeconds() < 60) {
+            return "Last " + window.toSeconds() + " seconds";
+        }
+        long minutes = window.toMinutes();
+        return minutes == 1 ? "Last minute" : "Last " + minutes + " minutes";
+    }
+}
@@ -0,0 +1,64 @@
+package org.vaadin.kitchensink.views.shared;
+
+import java.time.Duration;
+
+/**
+ * Decides when a view subscribed to periodic updates should be pushed to.
+ * <p>
+ * An active view gets relevant changes immediately and everything else at most
+ * once per interval. A suspended view, whose tab is hidden or idle, gets updates
+ * at exponentially growing intervals up to a maximum, until it is resumed.
+ * </p>
+ */
+final class RefreshSchedule {
+
+    private final long intervalNanos;
+    private final long maxBackoffNanos;
+    private boolean suspended;
+    private long lastPushNanos;
+    private long backoffNanos;
+
+    RefreshSchedule(Duration interval, Duration maxBackoff) {
+        this.intervalNanos = interval.toNanos();
+        this.maxBackoffNanos = Math.max(intervalNanos, maxBackoff.toNanos());
+    }
+
+    /**
+     * Returns whether an update should be pushed now, and if so, counts it as
+     * pushed.
+     *
+     * @param relevantChange
+     *            whether the update contains a change an active view should see
+     *            right away
+     */
+    synchronized boolean shouldPush(boolean relevantChange, long nowNanos) {
+        boolean due = nowNanos - lastPushNanos >= (suspended ? backoffNanos : intervalNanos);
+        if (!due && (suspended || !relevantChange)) {
+            return false;
+        }
+        lastPushNanos = nowNanos;
+        if (suspended) {
+            backoffNanos = Math.min(backoffNanos * 2, maxBackoffNanos);
+        }
+        return true;
+    }
+
+    synchronized void suspend(long nowNanos) {
+        suspended = true;
+        backoffNanos = intervalNanos;
+        lastPushNanos = nowNanos;
+    }
+
+    /**
+     * Resumes the regular schedule. The caller is expected to push an update
+     * right away.
+     */
+    synchronized void resume(long nowNanos) {
+        suspended = false;
+        lastPushNanos = nowNanos;
+    }
+
+    synchronized boolean isSuspended() {
+        return suspended;
+    }
+}
@@ -0,0 +1,65 @@
+package org.vaadin.kitchensink.exchanges;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ExchangeIndexTest {
+
+    private static final int[] STATUSES = { 200, 302, 404, 500 };
+    private static final long[] MILLIS = { 1, 20, 300, 4000 };
+    private static final String[] PATHS = { "/api/items", "/api/users/7", "/actuator/health", "/" };
+
+    @Test
+    void filtersThroughIndexes() {
+        RingBufferHttpExchangeRepository repository = new RingBufferHttpExchangeRepository(16);
+        for (int i = 0; i < 40; i++) {
+            repository.add(TestExchanges.exchange(PATHS[i % PATHS.length], STATUSES[i % STATUSES.length],
+                    MILLIS[i % MILLIS.length]));
+        }
+
+        List<CapturedExchange> serverErrors = repository.find(query(new ExchangeFilter(null, "/actuator", 5,
+                null, null, null, null, null)));
+        List<CapturedExchange> slow = repository.find(query(new ExchangeFilter(null, null, null,
+                Duration.ofMillis(500), null, null, null, null)));
+
+        assertEquals(List.of(), serverErrors);
+        assertEquals(4, slow.size());
+        assertTrue(slow.stream().allMatch(exchange -> exchange.getTimeTaken().toMillis() == 4000));
+        assertEquals(List.of("/api/users/7", "/api/users/7", "/api/users/7", "/api/users/7"),
+                repository.find(query(new ExchangeFilter(null, "/api/u", null, null, null, null, null, null)))
+                        .stream().map(CapturedExchange::getPath).toList());
+    }
+
+    @Test
+    void lappedWritersLeaveNoFalseNegatives() throws InterruptedException {
+        for (int round = 0; round < 50; round++) {
+            RingBufferHttpExchangeRepository repository = new RingBufferHttpExchangeRepository(4);
+            RingBufferHttpExchangeRepositoryTest.runConcurrently(8, thread -> {
+                for (int i = 0; i < 2_000; i++) {
+                    int variant = (thread + i) % STATUSES.length;
+                    repository.add(TestExchanges.exchange(PATHS[variant], STATUSES[variant], MILLIS[variant]));
+                }
+            });
+
+            // Every retained exchange must still be reachable through each index
+            for (CapturedExchange retained : repository.find(query(ExchangeFilter.NONE))) {
+                assertTrue(repository.find(query(new ExchangeFilter(null, null, retained.getStatus() / 100, null,
+                        null, null, null, null))).contains(retained), () -> "status index misses " + retained.getId());
+                assertTrue(repository.find(query(new ExchangeFilter(null, null, null, retained.getTimeTaken(),
+                        retained.getTimeTaken(), null, null, null))).contains(retained),
+                        () -> "duration index misses " + retained.getId());
+                assertTrue(repository.find(query(new ExchangeFilter(null, retained.getPath(), null, null, null,
+                        null, null, null))).contains(retained), () -> "path index misses " + retained.getId());
+            }
+        }
+    }
+
+    private static ExchangeQuery query(ExchangeFilter filter) {
+        return new ExchangeQuery(filter, ExchangeQuery.Sort.NEWEST_FIRST, 0, Integer.MAX_VALUE);
+    }
+}
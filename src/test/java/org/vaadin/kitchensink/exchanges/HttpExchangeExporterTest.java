@@ -0,0 +1,69 @@
+package org.vaadin.kitchensink.exchanges;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.web.exchanges.HttpExchange;
+
+class HttpExchangeExporterTest {
+
+    @Test
+    void masksSensitiveHeadersByDefault() throws IOException {
+        String export = export(new HttpExchangeExporter(store()));
+
+        assertFalse(export.contains("Bearer secret"), export);
+        assertFalse(export.contains("JSESSIONID=abc"), export);
+        assertFalse(export.contains("SESSION=def"), export);
+        assertFalse(export.contains("abc"), export);
+        assertTrue(export.contains("\"Authorization\":[\"" + HttpExchangeExporter.MASK + "\"]"), export);
+        assertTrue(export.contains("\"Accept\":[\"application/json\"]"), export);
+    }
+
+    @Test
+    void masksConfiguredHeadersIgnoringCase() throws IOException {
+        String export = export(new HttpExchangeExporter(store(), Set.of("ACCEPT")));
+
+        assertTrue(export.contains("Bearer secret"), export);
+        assertTrue(export.contains("\"Accept\":[\"" + HttpExchangeExporter.MASK + "\"]"), export);
+        assertTrue(export.contains("\"session\":\"abc\""), export);
+    }
+
+    @Test
+    void masksSessionIdInCsvWithTheCookieHeader() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new HttpExchangeExporter(store()).export(ExchangeFilter.NONE, HttpExchangeExporter.Format.CSV, false, out);
+        String export = out.toString(StandardCharsets.UTF_8);
+
+        assertFalse(export.contains("abc"), export);
+        assertTrue(export.contains(HttpExchangeExporter.MASK), export);
+    }
+
+    private static HttpExchangeStore store() {
+        RingBufferHttpExchangeRepository repository = new RingBufferHttpExchangeRepository(4);
+        HttpExchange.Request request = new HttpExchange.Request(URI.create("http://localhost:8080/api"),
+                "127.0.0.1", "GET", Map.of("Accept", List.of("application/json"),
+                        "Authorization", List.of("Bearer secret"), "Cookie", List.of("JSESSIONID=abc")));
+        HttpExchange.Response response = new HttpExchange.Response(200,
+                Map.of("Set-Cookie", List.of("SESSION=def; HttpOnly")));
+        repository.add(new HttpExchange(Instant.now(), request, response, null, new HttpExchange.Session("abc"),
+                Duration.ofMillis(5)));
+        return repository;
+    }
+
+    private static String export(HttpExchangeExporter exporter) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(ExchangeFilter.NONE, HttpExchangeExporter.Format.NDJSON, false, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
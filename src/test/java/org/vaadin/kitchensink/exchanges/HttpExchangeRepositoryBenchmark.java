@@ -0,0 +1,77 @@
+package org.vaadin.kitchensink.exchanges;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.actuate.web.exchanges.HttpExchange;
+import org.springframework.boot.actuate.web.exchanges.HttpExchangeRepository;
+import org.springframework.boot.actuate.web.exchanges.InMemoryHttpExchangeRepository;
+
+/**
+ * Compares append throughput of the ring buffer with Spring's
+ * {@link InMemoryHttpExchangeRepository} at 8, 32 and 128 writer threads, while
+ * one reader keeps taking snapshots as the history view would.
+ * <p>
+ * Not part of the regular build, run it with
+ * {@code ./mvnw test -Dtest=HttpExchangeRepositoryBenchmark -Dbenchmark=true}.
+ * </p>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class HttpExchangeRepositoryBenchmark {
+
+    private static final int CAPACITY = 1024;
+    private static final int APPENDS = 2_000_000;
+    private static final int ROUNDS = 3;
+
+    @Test
+    void writerContention() throws InterruptedException {
+        HttpExchange exchange = TestExchanges.exchange("/api/items/42", 200, 12);
+        System.out.printf("%-8s %-14s %14s %16s%n", "writers", "repository", "appends/s", "snapshots/s");
+        for (int writers : List.of(8, 32, 128)) {
+            run(writers, "in-memory", () -> {
+                InMemoryHttpExchangeRepository repository = new InMemoryHttpExchangeRepository();
+                repository.setCapacity(CAPACITY);
+                return repository;
+            }, exchange);
+            run(writers, "ring buffer", () -> new RingBufferHttpExchangeRepository(CAPACITY), exchange);
+        }
+    }
+
+    private static void run(int writers, String name, Supplier<HttpExchangeRepository> factory,
+            HttpExchange exchange) throws InterruptedException {
+        double best = 0;
+        double snapshots = 0;
+        // The first rounds warm up the JIT, the best round is reported
+        for (int round = 0; round < ROUNDS; round++) {
+            HttpExchangeRepository repository = factory.get();
+            AtomicBoolean writing = new AtomicBoolean(true);
+            LongAdder reads = new LongAdder();
+            Thread reader = new Thread(() -> {
+                while (writing.get()) {
+                    repository.findAll();
+                    reads.increment();
+                }
+            });
+            reader.start();
+            int perWriter = APPENDS / writers;
+            long start = System.nanoTime();
+            RingBufferHttpExchangeRepositoryTest.runConcurrently(writers, thread -> {
+                for (int i = 0; i < perWriter; i++) {
+                    repository.add(exchange);
+                }
+            });
+            double seconds = (System.nanoTime() - start) / 1e9;
+            writing.set(false);
+            reader.join();
+            if (perWriter * writers / seconds > best) {
+                best = perWriter * writers / seconds;
+                snapshots = reads.sum() / seconds;
+            }
+        }
+        System.out.printf("%-8d %-14s %,14.0f %,16.0f%n", writers, name, best, snapshots);
+    }
+}
@@ -0,0 +1,200 @@
+package org.vaadin.kitchensink.exchanges;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.web.exchanges.HttpExchange;
+
+class JournalHttpExchangeRepositoryTest {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+    private static final int HEADER_SIZE = 32;
+    private static final ExchangeQuery ALL = new ExchangeQuery(ExchangeFilter.NONE,
+            ExchangeQuery.Sort.NEWEST_FIRST, 0, Integer.MAX_VALUE);
+
+    @TempDir
+    Path directory;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+
+    @Test
+    void recoversIntactRecordsAndDiscardsTornTail() throws IOException {
+        try (JournalHttpExchangeRepository journal = open(Duration.ofDays(1))) {
+            addAll(journal, 5);
+        }
+        Path segment = singleSegment();
+        int end = recordOffsets(segment).get(5);
+        // A record whose leading length was written but whose payload and trailer were not
+        write(segment, end, ByteBuffer.allocate(12).putInt(200).putInt(0xCAFE).putInt(7).flip());
+
+        try (JournalHttpExchangeRepository journal = open(Duration.ofDays(1))) {
+            assertEquals(List.of("/items/4", "/items/3", "/items/2", "/items/1", "/items/0"), paths(journal));
+            journal.add(exchange("/items/5"));
+        }
+        try (JournalHttpExchangeRepository journal = open(Duration.ofDays(1))) {
+            assertEquals(List.of("/items/5", "/items/4", "/items/3", "/items/2", "/items/1", "/items/0"),
+                    paths(journal));
+            assertEquals("application/json",
+                    journal.findAll().get(0).getRequest().getHeaders().get("Accept").get(0));
+        }
+    }
+
+    @Test
+    void stopsRecoveryAtFirstRecordFailingItsChecksum() throws IOException {
+        try (JournalHttpExchangeRepository journal = open(Duration.ofDays(1))) {
+            addAll(journal, 5);
+        }
+        Path segment = singleSegment();
+        int fourth = recordOffsets(segment).get(3);
+        // Flip a byte inside the payload of the fourth record, keeping its lengths intact
+        ByteBuffer original = read(segment, fourth + 8 + 20, 1);
+        write(segment, fourth + 8 + 20, ByteBuffer.wrap(new byte[] { (byte) ~original.get(0) }));
+
+        try (JournalHttpExchangeRepository journal = open(Duration.ofDays(1))) {
+            assertEquals(List.of("/items/2", "/items/1", "/items/0"), paths(journal));
+            journal.add(exchange("/items/new"));
+            assertEquals(List.of("/items/new", "/items/2", "/items/1", "/items/0"), paths(journal));
+        }
+        try (JournalHttpExchangeRepository journal = open(Duration.ofDays(1))) {
+            assertEquals(List.of("/items/new", "/items/2", "/items/1", "/items/0"), paths(journal));
+        }
+    }
+
+    @Test
+    void expiresByAgeWithoutFurtherTraffic() throws IOException {
+        try (JournalHttpExchangeRepository journal = open(Duration.ofHours(1))) {
+            addAll(journal, 3);
+            Path expired = singleSegment();
+            List<CapturedExchange> listed = journal.find(ALL);
+
+            clock.advance(Duration.ofHours(2));
+            journal.expire();
+
+            assertTrue(journal.find(ALL).isEmpty());
+            assertFalse(Files.exists(expired));
+            assertEquals(1, segmentFiles().size());
+            // Exchanges listed before the segment was deleted degrade to their summary
+            assertEquals("/items/2", listed.get(0).getExchange().getRequest().getUri().getPath());
+            assertTrue(listed.get(0).getExchange().getRequest().getHeaders().isEmpty());
+        }
+    }
+
+    @Test
+    void keepsTotalSizeWithinBudget() throws IOException {
+        int segmentSize = 4 * 1024;
+        try (JournalHttpExchangeRepository journal = new JournalHttpExchangeRepository(directory, segmentSize,
+                3L * segmentSize, Duration.ofDays(1), 50, clock)) {
+            addAll(journal, 500);
+
+            assertEquals(3, segmentFiles().size());
+            assertEquals(3L * segmentSize, journal.getSize());
+            assertEquals("/items/499", paths(journal).get(0));
+        }
+    }
+
+    private JournalHttpExchangeRepository open(Duration maxAge) throws IOException {
+        return new JournalHttpExchangeRepository(directory, SEGMENT_SIZE, 16L * SEGMENT_SIZE, maxAge, 50, clock);
+    }
+
+    private void addAll(JournalHttpExchangeRepository journal, int count) {
+        for (int i = 0; i < count; i++) {
+            journal.add(exchange("/items/" + i));
+        }
+    }
+
+    private HttpExchange exchange(String path) {
+        return TestExchanges.exchange(clock.instant(), path, 200, 5);
+    }
+
+    private static List<String> paths(JournalHttpExchangeRepository journal) {
+        return journal.find(ALL).stream().map(CapturedExchange::getPath).toList();
+    }
+
+    private Path singleSegment() throws IOException {
+        List<Path> files = segmentFiles();
+        assertEquals(1, files.size());
+        return files.get(0);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".journal")).sorted().toList();
+        }
+    }
+
+    /**
+     * Returns the start offset of every record, followed by the end of the last
+     * one.
+     */
+    private static List<Integer> recordOffsets(Path segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        List<Integer> offsets = new ArrayList<>();
+        int position = HEADER_SIZE;
+        while (buffer.getInt(position) > 0) {
+            offsets.add(position);
+            position += buffer.getInt(position) + 12;
+        }
+        offsets.add(position);
+        return offsets;
+    }
+
+    private static ByteBuffer read(Path segment, int position, int length) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            channel.read(buffer, position);
+            return buffer.flip();
+        }
+    }
+
+    private static void write(Path segment, int position, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(bytes, position);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.vaadin.kitchensink.exchanges;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class RingBufferHttpExchangeRepositoryTest {
+
+    private static final ExchangeQuery ALL = new ExchangeQuery(ExchangeFilter.NONE,
+            ExchangeQuery.Sort.NEWEST_FIRST, 0, Integer.MAX_VALUE);
+
+    @Test
+    void keepsMostRecentExchangesNewestFirst() {
+        RingBufferHttpExchangeRepository repository = new RingBufferHttpExchangeRepository(4);
+        for (int i = 0; i < 10; i++) {
+            repository.add(TestExchanges.exchange("/items/" + i, 200, 1));
+        }
+
+        List<CapturedExchange> retained = repository.find(ALL);
+
+        assertEquals(List.of(9L, 8L, 7L, 6L), retained.stream().map(CapturedExchange::getId).toList());
+        assertEquals(List.of("/items/9", "/items/8", "/items/7", "/items/6"),
+                retained.stream().map(CapturedExchange::getPath).toList());
+        assertEquals(4, repository.findAll().size());
+        assertEquals("/items/9", repository.findAll().get(0).getRequest().getUri().getPath());
+    }
+
+    @Test
+    void lappedWritersNeverReplaceNewerExchanges() throws InterruptedException {
+        int capacity = 8;
+        int threads = 16;
+        int perThread = 5_000;
+        RingBufferHttpExchangeRepository repository = new RingBufferHttpExchangeRepository(capacity);
+
+        runConcurrently(threads, thread -> {
+            for (int i = 0; i < perThread; i++) {
+                repository.add(TestExchanges.exchange("/t" + thread + "/" + i, 200, 1));
+            }
+        });
+
+        // Every slot ends up with the newest sequence mapped to it, so the last lap is complete
+        long total = (long) threads * perThread;
+        List<Long> ids = repository.find(ALL).stream().map(CapturedExchange::getId).toList();
+        List<Long> expected = new ArrayList<>();
+        for (long id = total - 1; id >= total - capacity; id--) {
+            expected.add(id);
+        }
+        assertEquals(expected, ids);
+    }
+
+    @Test
+    void snapshotsAreConsistentWhileWritersRun() throws InterruptedException {
+        int capacity = 64;
+        RingBufferHttpExchangeRepository repository = new RingBufferHttpExchangeRepository(capacity);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ConcurrentLinkedQueue<String> violations = new ConcurrentLinkedQueue<>();
+
+        Thread reader = new Thread(() -> {
+            while (writing.get()) {
+                List<CapturedExchange> snapshot = repository.find(ALL);
+                if (snapshot.size() > capacity) {
+                    violations.add("snapshot of " + snapshot.size() + " exchanges");
+                }
+                for (int i = 1; i < snapshot.size(); i++) {
+                    long newer = snapshot.get(i - 1).getId();
+                    long older = snapshot.get(i).getId();
+                    if (older >= newer || newer - older >= capacity) {
+                        violations.add("ids " + newer + " then " + older);
+                    }
+                }
+            }
+        });
+        reader.start();
+        runConcurrently(8, thread -> {
+            for (int i = 0; i < 20_000; i++) {
+                repository.add(TestExchanges.exchange("/w" + thread, 200, 1));
+            }
+        });
+        writing.set(false);
+        reader.join();
+
+        assertTrue(violations.isEmpty(), () -> "Inconsistent snapshots: " + violations.stream().limit(5).toList());
+        assertEquals(capacity, repository.find(ALL).size());
+    }
+
+    static void runConcurrently(int threads, ThreadBody body) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    body.run(thread);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    @FunctionalInterface
+    interface ThreadBody {
+        void run(int thread);
+    }
+}
@@ -0,0 +1,38 @@
+package org.vaadin.kitchensink.exchanges;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class RouteLatencyAggregatorTest {
+
+    @Test
+    void unroutedPathsNeverTakeTheSlotsOfRoutes() {
+        RouteLatencyAggregator aggregator = new RouteLatencyAggregator(Duration.ofSeconds(10), 6);
+        aggregator.setRouteTemplates(List.of("orders/:id", "health"));
+        long now = System.currentTimeMillis();
+        // A scanner probing far more prefixes than there are fallback slots
+        for (int i = 0; i < 500; i++) {
+            aggregator.record("/probe-" + i + "/index.php", now, 1_000_000);
+        }
+
+        aggregator.record("/orders/17", now, 2_000_000);
+        aggregator.record("/orders/42", now, 2_000_000);
+        aggregator.record("/health", now, 3_000_000);
+
+        Map<String, Long> counts = aggregator.snapshot(Duration.ofMinutes(1)).stream()
+                .collect(Collectors.toMap(RouteLatencyAggregator.RouteLatency::route,
+                        RouteLatencyAggregator.RouteLatency::count));
+        assertEquals(2L, counts.get("/orders/:id"));
+        assertEquals(1L, counts.get("/health"));
+        assertTrue(counts.get(RouteLatencyAggregator.OTHER_ROUTE) > 0, counts::toString);
+        long fallbacks = counts.keySet().stream().filter(route -> route.endsWith("/**")).count();
+        assertEquals(64L, fallbacks);
+    }
+}
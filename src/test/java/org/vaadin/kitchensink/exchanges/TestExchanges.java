@@ -0,0 +1,30 @@
+package org.vaadin.kitchensink.exchanges;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.actuate.web.exchanges.HttpExchange;
+
+/**
+ * Builds exchanges for tests.
+ */
+final class TestExchanges {
+
+    private TestExchanges() {
+    }
+
+    static HttpExchange exchange(String path, int status, long millis) {
+        return exchange(Instant.now(), path, status, millis);
+    }
+
+    static HttpExchange exchange(Instant timestamp, String path, int status, long millis) {
+        HttpExchange.Request request = new HttpExchange.Request(URI.create("http://localhost:8080" + path),
+                "127.0.0.1", "GET", Map.of("Accept", List.of("application/json")));
+        HttpExchange.Response response = new HttpExchange.Response(status,
+                Map.of("Content-Type", List.of("application/json")));
+        return new HttpExchange(timestamp, request, response, null, null, Duration.ofMillis(millis));
+    }
+}
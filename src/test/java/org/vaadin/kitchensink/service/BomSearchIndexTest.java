@@ -0,0 +1,139 @@
+package org.vaadin.kitchensink.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class BomSearchIndexTest {
+
+    private static final String ALPHABET = "abcAB-.1";
+
+    @Test
+    void findsMatchesAndTheirAncestors() {
+        IndexedBomModel.Builder builder = new IndexedBomModel.Builder();
+        int app = builder.addComponent(-1);
+        builder.setComponent(app, "app", "org.vaadin", "kitchen-sink", "1.0", "application", null);
+        int core = builder.addComponent(-1);
+        builder.setComponent(core, "core", "com.vaadin", "flow-server", "24.8.3", "library", null);
+        int jackson = builder.addComponent(-1);
+        builder.setComponent(jackson, "jackson", "com.fasterxml.jackson.core", "jackson-core", "2.19.1",
+                "library", null);
+        builder.addDependency("app", List.of("core"));
+        builder.addDependency("core", List.of("jackson"));
+        BomSearchIndex index = new BomSearchIndex(builder.build());
+
+        BomSearchIndex.SearchResult result = index.search("JACKSON");
+
+        assertEquals(BitSet.valueOf(new long[] { 1L << jackson }), result.matches());
+        assertEquals(BitSet.valueOf(new long[] { 1L << app | 1L << core | 1L << jackson }), result.paths());
+        assertTrue(index.search("server24").matches().isEmpty(), "matched across fields");
+    }
+
+    @Test
+    void agreesWithBruteForceScan() {
+        Random random = new Random(42);
+        BomModel bom = randomModel(random, 400);
+        BomSearchIndex index = new BomSearchIndex(bom);
+
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            queries.add(randomText(random, 1 + random.nextInt(6)));
+        }
+        for (int i = 0; i < 100; i++) {
+            // Substrings of real names, which are sure to match
+            String name = bom.getName(random.nextInt(bom.size()));
+            int start = random.nextInt(name.length());
+            queries.add(name.substring(start, Math.min(name.length(), start + 1 + random.nextInt(8))));
+        }
+        queries.add("");
+        queries.add("a\0b");
+
+        for (String query : queries) {
+            BitSet expectedMatches = bruteForceMatches(bom, query);
+            BomSearchIndex.SearchResult result = index.search(query);
+            assertEquals(expectedMatches, result.matches(), () -> "matches of \"" + query + "\"");
+            assertEquals(bruteForcePaths(bom, expectedMatches), result.paths(), () -> "paths of \"" + query + "\"");
+        }
+    }
+
+    private static BomModel randomModel(Random random, int size) {
+        IndexedBomModel.Builder builder = new IndexedBomModel.Builder();
+        for (int component = 0; component < size; component++) {
+            int parent = component > 0 && random.nextInt(4) == 0 ? random.nextInt(component) : -1;
+            int index = builder.addComponent(parent);
+            builder.setComponent(index, "ref-" + index,
+                    random.nextInt(5) == 0 ? null : randomText(random, 2 + random.nextInt(6)),
+                    randomText(random, 1 + random.nextInt(10)),
+                    random.nextInt(5) == 0 ? null : randomText(random, 1 + random.nextInt(4)),
+                    "library", null);
+        }
+        for (int component = 0; component < size; component++) {
+            List<String> dependsOn = new ArrayList<>();
+            for (int i = random.nextInt(3); i > 0; i--) {
+                // Cycles are allowed, the dependency graph of a real BOM may contain them
+                dependsOn.add("ref-" + random.nextInt(size));
+            }
+            builder.addDependency("ref-" + component, dependsOn);
+        }
+        return builder.build();
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return text.toString();
+    }
+
+    private static BitSet bruteForceMatches(BomModel bom, String query) {
+        String lowerQuery = query.toLowerCase(Locale.ROOT);
+        BitSet matches = new BitSet();
+        for (int component = 0; component < bom.size(); component++) {
+            if (contains(bom.getName(component), lowerQuery) || contains(bom.getGroup(component), lowerQuery)
+                    || contains(bom.getVersion(component), lowerQuery)) {
+                matches.set(component);
+            }
+        }
+        return matches;
+    }
+
+    private static boolean contains(String field, String lowerQuery) {
+        return (field != null ? field.toLowerCase(Locale.ROOT) : "").contains(lowerQuery);
+    }
+
+    /**
+     * Returns every component from which a match can be reached by following
+     * children, found by searching down from each component separately.
+     */
+    private static BitSet bruteForcePaths(BomModel bom, BitSet matches) {
+        BitSet paths = new BitSet();
+        for (int component = 0; component < bom.size(); component++) {
+            if (reaches(bom, component, matches, new BitSet())) {
+                paths.set(component);
+            }
+        }
+        return paths;
+    }
+
+    private static boolean reaches(BomModel bom, int component, BitSet matches, BitSet visited) {
+        if (matches.get(component)) {
+            return true;
+        }
+        visited.set(component);
+        for (int position = 0; position < bom.getChildCount(component); position++) {
+            int child = bom.getChild(component, position);
+            if (!visited.get(child) && reaches(bom, child, matches, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,93 @@
+package org.vaadin.kitchensink.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.DefaultHealthContributorRegistry;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthContributor;
+import org.springframework.boot.actuate.health.HealthEndpointGroup;
+import org.springframework.boot.actuate.health.HealthEndpointGroups;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.actuate.health.StatusAggregator;
+
+class HealthEvaluationEngineTest {
+
+    private static final Duration TIMEOUT = Duration.ofMillis(500);
+
+    // Scheduling slack on top of the timeout, far below a second timeout
+    private static final long TOLERANCE_MILLIS = 100;
+
+    @Test
+    void startedChecksRunOnceAndFinishWithinOneTimeout() {
+        AtomicInteger fastRuns = new AtomicInteger();
+        AtomicInteger hangingRuns = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        HealthIndicator fast = () -> {
+            fastRuns.incrementAndGet();
+            return Health.up().build();
+        };
+        HealthIndicator hanging = () -> {
+            hangingRuns.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Health.up().build();
+        };
+        try (HealthEvaluationEngine engine = engine(Map.of("fast", fast, "hanging", hanging))) {
+            long start = System.nanoTime();
+            Health hung;
+            Health answered;
+            try (HealthEvaluationEngine.Batch batch = engine.start(name -> true)) {
+                // Collected one after another, the fast check only after the hanging one timed out
+                hung = engine.evaluate("hanging", hanging);
+                answered = engine.evaluate("fast", fast);
+            }
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertEquals(HealthEvaluationEngine.TIMEOUT, hung.getStatus());
+            assertEquals(Status.UP, answered.getStatus());
+            assertEquals(1, fastRuns.get());
+            assertEquals(1, hangingRuns.get());
+            assertTrue(elapsed <= TIMEOUT.toMillis() + TOLERANCE_MILLIS, "took " + elapsed + " ms");
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void startsOnlyAcceptedChecks() {
+        AtomicInteger runs = new AtomicInteger();
+        HealthIndicator counted = () -> {
+            runs.incrementAndGet();
+            return Health.up().build();
+        };
+        try (HealthEvaluationEngine engine = engine(Map.of("db", counted, "disk", counted))) {
+            try (HealthEvaluationEngine.Batch batch = engine.start("db"::equals)) {
+                assertEquals(Status.UP, engine.evaluate("db", counted).getStatus());
+            }
+            assertEquals(1, runs.get());
+        }
+    }
+
+    private static HealthEvaluationEngine engine(Map<String, HealthContributor> indicators) {
+        HealthEndpointGroup primary = mock(HealthEndpointGroup.class);
+        when(primary.getStatusAggregator()).thenReturn(StatusAggregator.getDefault());
+        HealthProperties properties = new HealthProperties();
+        properties.setTimeout(TIMEOUT);
+        return new HealthEvaluationEngine(new DefaultHealthContributorRegistry(indicators),
+                HealthEndpointGroups.of(primary, Map.of()), properties);
+    }
+}
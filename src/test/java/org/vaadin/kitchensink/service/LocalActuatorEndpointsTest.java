@@ -0,0 +1,88 @@
+package org.vaadin.kitchensink.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "vaadin.launch-browser=false", "kitchen-sink.actuator.cache.max-entries=0" })
+class LocalActuatorEndpointsTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ActuatorService actuatorService;
+
+    @Autowired
+    private LocalActuatorEndpoints localEndpoints;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Test
+    void localHealthHasTheShapeOfTheHttpResponse() throws IOException, InterruptedException {
+        String url = "http://localhost:" + port + "/actuator/health";
+        assertNotNull(localEndpoints.resolve(URI.create(url)), "health is not invoked in-process");
+
+        JsonNode local = actuatorService.getActuatorData(url, JsonNode.class);
+        JsonNode http = readOverHttp(url);
+
+        assertEquals(shape(http), shape(local));
+    }
+
+    @Test
+    void endpointsRequiringAuthenticationAreNotInvokedInProcess() {
+        String url = "http://localhost:" + port + "/actuator/httpexchanges";
+        assertNull(localEndpoints.resolve(URI.create(url)), "httpexchanges bypasses the security filter chain");
+    }
+
+    private JsonNode readOverHttp(String url) throws IOException, InterruptedException {
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(url)).header("Accept", "application/json").build(),
+                HttpResponse.BodyHandlers.ofString());
+        return mapper.readTree(response.body());
+    }
+
+    /**
+     * Returns the JSON pointers of every field and the kind of value there, ignoring
+     * the values themselves, which change between calls.
+     */
+    private static Set<String> shape(JsonNode document) {
+        Set<String> shape = new TreeSet<>();
+        collect("", document, shape);
+        return shape;
+    }
+
+    private static void collect(String pointer, JsonNode node, Set<String> shape) {
+        shape.add(pointer + " " + (node.isNumber() ? "NUMBER" : node.getNodeType()));
+        if (node.isObject()) {
+            for (Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext();) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                collect(pointer + "/" + field.getKey(), field.getValue(), shape);
+            }
+        } else if (node.isArray()) {
+            for (int i = 0; i < node.size(); i++) {
+                collect(pointer + "/" + i, node.get(i), shape);
+            }
+        }
+    }
+}
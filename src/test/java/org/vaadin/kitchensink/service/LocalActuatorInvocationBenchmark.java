@@ -0,0 +1,93 @@
+package org.vaadin.kitchensink.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares the latency of reading this application's own actuator endpoints
+ * in-process through {@link ActuatorService} with sending the same request over
+ * loopback HTTP and parsing the response, with the response cache disabled.
+ * <p>
+ * Not part of the regular build, run it with
+ * {@code ./mvnw test -Dtest=LocalActuatorInvocationBenchmark -Dbenchmark=true}.
+ * </p>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "vaadin.launch-browser=false", "kitchen-sink.actuator.cache.max-entries=0" })
+class LocalActuatorInvocationBenchmark {
+
+    private static final int CALLS = 2_000;
+    private static final int ROUNDS = 3;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ActuatorService actuatorService;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Test
+    void localVersusLoopback() {
+        HttpClient client = HttpClient.newHttpClient();
+        System.out.printf("%-10s %-10s %12s %12s %12s%n", "endpoint", "path", "mean µs", "p50 µs", "p99 µs");
+        for (String endpoint : List.of("health", "info", "env")) {
+            String url = "http://localhost:" + port + "/actuator/" + endpoint;
+            run(endpoint, "local", url, target -> actuatorService.getActuatorData(target, JsonNode.class));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url)).header("Accept", "application/json")
+                    .build();
+            run(endpoint, "loopback", url, target -> {
+                try {
+                    mapper.readTree(client.send(request, HttpResponse.BodyHandlers.ofInputStream()).body());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+    }
+
+    private static void run(String endpoint, String path, String url, Consumer<String> call) {
+        long[] best = null;
+        double bestMean = Double.MAX_VALUE;
+        // The first rounds warm up the JIT, the best round is reported
+        for (int round = 0; round < ROUNDS; round++) {
+            long[] micros = new long[CALLS];
+            long total = 0;
+            for (int i = 0; i < CALLS; i++) {
+                long start = System.nanoTime();
+                call.accept(url);
+                micros[i] = (System.nanoTime() - start) / 1_000;
+                total += micros[i];
+            }
+            double mean = (double) total / CALLS;
+            if (mean < bestMean) {
+                bestMean = mean;
+                best = micros;
+            }
+        }
+        Arrays.sort(best);
+        System.out.printf("%-10s %-10s %,12.1f %,12d %,12d%n", endpoint, path, bestMean, best[CALLS / 2],
+                best[CALLS * 99 / 100]);
+    }
+}
@@ -0,0 +1,47 @@
+package org.vaadin.kitchensink.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedBomModelTest {
+
+    // UTF-16 and UTF-8 order disagree on the last two: a surrogate pair sorts before U+FFFD in UTF-16 only
+    private static final List<String> REFS = List.of("pkg:maven/a@1", "pkg:maven/b@1", "pkg:npm/z@1",
+            "pkg:npm/\u00fc@1", "pkg:npm/\uD83D\uDE00@1", "pkg:npm/\uFFFD@1");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void findsEveryBomRefInTheCompiledIndex() throws IOException {
+        IndexedBomModel.Builder builder = new IndexedBomModel.Builder();
+        // Added in reverse so that component order differs from bom-ref order
+        for (int i = REFS.size() - 1; i >= 0; i--) {
+            int component = builder.addComponent(-1);
+            builder.setComponent(component, REFS.get(i), "group", "name-" + i, "1", "library", null);
+        }
+        IndexedBomModel source = builder.build();
+        Path index = directory.resolve("bom.idx");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(index))) {
+            BomIndexCompiler.write(source, out);
+        }
+
+        MappedBomModel mapped = MappedBomModel.open(index.toUri().toURL());
+
+        for (String ref : REFS) {
+            assertEquals(source.indexOf(ref), mapped.indexOf(ref), ref);
+            assertEquals(ref, mapped.getBomRef(mapped.indexOf(ref)));
+        }
+        assertEquals(-1, mapped.indexOf("pkg:maven/missing@1"));
+        assertEquals(-1, mapped.indexOf("pkg:maven/a"));
+        assertEquals(-1, mapped.indexOf(null));
+    }
+}